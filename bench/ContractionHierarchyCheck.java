@@ -0,0 +1,105 @@
+package bench;
+
+import java.util.List;
+
+import bench.GridGenerator.MapType;
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.GridModel;
+import solver.ContractionHierarchy;
+import solver.ContractionHierarchyQuery;
+import solver.PathQuery;
+import solver.PathResult;
+import util.NodeTag;
+
+/**
+ * A command line check that a contraction hierarchy refuses the queries once
+ * its grid has changed. For each kind of map it builds a hierarchy, walls a
+ * cell inside the first path it finds and queries it again, which must throw
+ * an IllegalStateException; the wall is then removed, which leaves the
+ * hierarchy stale all the same. It prints each failure and exits with 1 if
+ * there was any.
+ *
+ * Usage: java bench.ContractionHierarchyCheck [--size 64] [--seed 42]
+ */
+public class ContractionHierarchyCheck {
+    private static final int QUERY_COUNT = 20;
+
+    private int size = 64;
+    private long seed = 42;
+    private int failures;
+
+    public static void main(String[] args) throws NodePositionOutOfModelBounds {
+        ContractionHierarchyCheck check = new ContractionHierarchyCheck();
+        check.parseArguments(args);
+        check.run();
+        System.exit(check.failures == 0 ? 0 : 1);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--size":
+                    size = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    private void run() throws NodePositionOutOfModelBounds {
+        for (MapType mapType : MapType.values()) {
+            GridModel gM = GridGenerator.create(mapType, size, seed);
+            List<PathQuery> queries = GridGenerator.createQueries(gM, QUERY_COUNT, seed);
+            ContractionHierarchy hierarchy = new ContractionHierarchy(gM);
+            ContractionHierarchyQuery query = hierarchy.createQuery();
+            PathQuery walled = null;
+            PathResult result = null;
+            for (PathQuery pathQuery : queries) {
+                result = query.find(pathQuery.getStart(), pathQuery.getGoal());
+                if (result.isFound() && result.getLength() >= 3) {
+                    walled = pathQuery;
+                    break;
+                }
+            }
+            if (walled == null) {
+                fail(mapType, "no path of three cells or more to wall");
+                continue;
+            }
+
+            int middle = result.getCell(result.getLength() / 2);
+            int row = middle / gM.getCols();
+            int col = middle % gM.getCols();
+            gM.placeWall(row, col);
+            checkRefused(mapType, "after a wall was placed", query, walled);
+            gM.getNodeModel(row, col).setNodeTag(NodeTag.EMPTY);
+            checkRefused(mapType, "after the wall was removed", query, walled);
+            if (hierarchy.isValidFor(gM)) {
+                fail(mapType, "the hierarchy still claims to be valid");
+            }
+        }
+        System.out.printf("%d failures%n", failures);
+    }
+
+    /**
+     * It queries the stale hierarchy, which must throw.
+     */
+    private void checkRefused(MapType mapType, String when, ContractionHierarchyQuery query, PathQuery pathQuery)
+            throws NodePositionOutOfModelBounds {
+        try {
+            query.find(pathQuery.getStart(), pathQuery.getGoal());
+            fail(mapType, "a query ran " + when);
+        } catch (IllegalStateException e) {
+            // Refused, as it should be
+        }
+    }
+
+    private void fail(MapType mapType, String reason) {
+        failures++;
+        System.out.println("FAIL " + mapType + ": " + reason);
+    }
+}
@@ -0,0 +1,150 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import grid.GridModel;
+import solver.PathQuery;
+import util.Position;
+
+/**
+ * It builds the seeded grids and queries used by the benchmarks, so that two
+ * runs with the same seed measure exactly the same work.
+ */
+public class GridGenerator {
+    private static final int RANDOM_WALL_PERCENT = 30;
+
+    private GridGenerator() {
+    }
+
+    // The kinds of maps the benchmarks run on.
+    public enum MapType {
+        OPEN, RANDOM, MAZE
+    }
+
+    /**
+     * Creates a square grid of the given type.
+     *
+     * @param type The kind of map.
+     * @param size The number of rows and columns.
+     * @param seed The seed of the random walls and maze.
+     * @return A new GridModel object.
+     */
+    public static GridModel create(MapType type, int size, long seed) {
+        GridModel gM = new GridModel(size, size);
+        Random random = new Random(seed);
+        switch (type) {
+            case RANDOM:
+                placeRandomWalls(gM, random);
+                break;
+            case MAZE:
+                carveMaze(gM, random);
+                break;
+            case OPEN:
+            default:
+                break;
+        }
+        return gM;
+    }
+
+    /**
+     * Turns every cell into a wall with a fixed probability.
+     */
+    private static void placeRandomWalls(GridModel gM, Random random) {
+        for (int row = 0; row < gM.getRows(); row++) {
+            for (int col = 0; col < gM.getCols(); col++) {
+                if (random.nextInt(100) < RANDOM_WALL_PERCENT) {
+                    gM.placeWall(row, col);
+                }
+            }
+        }
+    }
+
+    /**
+     * It fills the grid with walls and carves a perfect maze in it with an
+     * iterative depth-first search, the rooms being the cells with even row
+     * and column.
+     */
+    private static void carveMaze(GridModel gM, Random random) {
+        int rows = gM.getRows();
+        int cols = gM.getCols();
+        boolean[] open = new boolean[rows * cols];
+        int[] stack = new int[rows * cols];
+        int top = 0;
+        open[0] = true;
+        stack[top++] = 0;
+        int[] directions = new int[4];
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int row = cell / cols;
+            int col = cell % cols;
+            int count = 0;
+            if (row >= 2 && !open[cell - 2 * cols]) {
+                directions[count++] = 0;
+            }
+            if (row + 2 < rows && !open[cell + 2 * cols]) {
+                directions[count++] = 1;
+            }
+            if (col >= 2 && !open[cell - 2]) {
+                directions[count++] = 2;
+            }
+            if (col + 2 < cols && !open[cell + 2]) {
+                directions[count++] = 3;
+            }
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int step;
+            switch (directions[random.nextInt(count)]) {
+                case 0:
+                    step = -cols;
+                    break;
+                case 1:
+                    step = cols;
+                    break;
+                case 2:
+                    step = -1;
+                    break;
+                default:
+                    step = 1;
+                    break;
+            }
+            open[cell + step] = true;
+            open[cell + 2 * step] = true;
+            stack[top++] = cell + 2 * step;
+        }
+        for (int cell = 0; cell < rows * cols; cell++) {
+            if (!open[cell]) {
+                gM.placeWall(cell / cols, cell % cols);
+            }
+        }
+    }
+
+    /**
+     * Creates queries between random walkable cells.
+     *
+     * @param gM    The grid the queries are for.
+     * @param count The number of queries.
+     * @param seed  The seed of the random positions.
+     * @return A new list of queries.
+     */
+    public static List<PathQuery> createQueries(GridModel gM, int count, long seed) {
+        Random random = new Random(seed);
+        List<PathQuery> queries = new ArrayList<>(count);
+        while (queries.size() < count) {
+            queries.add(new PathQuery(randomWalkable(gM, random), randomWalkable(gM, random)));
+        }
+        return queries;
+    }
+
+    private static Position randomWalkable(GridModel gM, Random random) {
+        while (true) {
+            int index = random.nextInt(gM.getSize());
+            if (gM.isWalkable(index)) {
+                return new Position(index / gM.getCols(), index % gM.getCols());
+            }
+        }
+    }
+}
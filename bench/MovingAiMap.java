@@ -0,0 +1,150 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import grid.GridFile;
+import grid.GridModel;
+import grid.MappedGridModel;
+
+/**
+ * A loader of the .map files of the MovingAI benchmarks. A file starts with
+ * the lines "type octile", "height H", "width W" and "map", followed by H
+ * lines of W characters, one per cell: '.', 'G' and 'S' are passable, and
+ * every other character ('@', 'O', 'T', 'W') is a wall.
+ * The file is read one line at a time, so a map can be turned into a GridFile
+ * without ever being held in memory.
+ */
+public class MovingAiMap {
+    private final BufferedReader reader;
+    private final Path path;
+    private final int rows;
+    private final int cols;
+    private int nextRow;
+
+    private MovingAiMap(BufferedReader reader, Path path) throws IOException {
+        this.reader = reader;
+        this.path = path;
+        int height = -1;
+        int width = -1;
+        String line;
+        while ((line = reader.readLine()) != null && !line.trim().equals("map")) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length != 2) {
+                continue;
+            }
+            switch (fields[0].toLowerCase(Locale.ROOT)) {
+                case "height":
+                    height = parseSize(fields[1]);
+                    break;
+                case "width":
+                    width = parseSize(fields[1]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (line == null || height <= 0 || width <= 0) {
+            throw new IOException("Missing height, width or map line in " + path);
+        }
+        rows = height;
+        cols = width;
+    }
+
+    private int parseSize(String value) throws IOException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid size " + value + " in " + path, e);
+        }
+    }
+
+    /**
+     * It reads the next line of the map into the row, true for the passable
+     * cells.
+     */
+    private void readRow(boolean[] passable) throws IOException {
+        String line = reader.readLine();
+        if (line == null || line.length() < cols) {
+            throw new IOException("Row " + nextRow + " is missing or shorter than " + cols + " in " + path);
+        }
+        for (int col = 0; col < cols; col++) {
+            passable[col] = isPassable(line.charAt(col));
+        }
+        nextRow++;
+    }
+
+    /**
+     * Returns true if a ground unit can stand on the terrain.
+     *
+     * @param terrain A character of the map.
+     * @return False for the walls, out of bounds cells, trees and water.
+     */
+    public static boolean isPassable(char terrain) {
+        return terrain == '.' || terrain == 'G' || terrain == 'S';
+    }
+
+    /**
+     * It builds a GridModel from the map, placing its walls as the lines are
+     * read.
+     *
+     * @param path The .map file.
+     * @return A new GridModel object.
+     * @throws IOException If the file cannot be read or is not a valid map.
+     */
+    public static GridModel load(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            MovingAiMap map = new MovingAiMap(reader, path);
+            GridModel gM = new GridModel(map.rows, map.cols);
+            boolean[] passable = new boolean[map.cols];
+            for (int row = 0; row < map.rows; row++) {
+                map.readRow(passable);
+                for (int col = 0; col < map.cols; col++) {
+                    if (!passable[col]) {
+                        gM.placeWall(row, col);
+                    }
+                }
+            }
+            return gM;
+        }
+    }
+
+    /**
+     * It converts the map into a GridFile, one line at a time, and maps the
+     * file into memory. The map is never held on the heap, which suits the
+     * largest maps.
+     *
+     * @param path     The .map file.
+     * @param gridFile The GridFile to write, replaced if it exists.
+     * @return A new MappedGridModel object.
+     * @throws IOException If a file cannot be read or written, or the map is
+     *                     not valid.
+     */
+    public static MappedGridModel loadMapped(Path path, Path gridFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            MovingAiMap map = new MovingAiMap(reader, path);
+            boolean[] passable = new boolean[map.cols];
+            try {
+                GridFile.write(gridFile, map.rows, map.cols, index -> {
+                    int col = index % map.cols;
+                    if (col == 0) {
+                        try {
+                            map.readRow(passable);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    return passable[col];
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return MappedGridModel.open(gridFile);
+    }
+}
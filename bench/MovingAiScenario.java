@@ -0,0 +1,104 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import solver.PathQuery;
+import util.Position;
+
+/**
+ * One line of a MovingAI .scen file: a query on a map, with the cost of its
+ * optimal path. After the "version 1" line, each line holds the bucket, the
+ * map name, the map width and height, the start x and y, the goal x and y and
+ * the optimal length, x being the column and y the row.
+ * The optimal length assumes diagonal moves of cost sqrt(2) that never cut the
+ * corner of a wall. The grids of this project allow those moves and cost them
+ * 1.4, so a path found here is never longer than ten times that length.
+ */
+public class MovingAiScenario {
+    private final int bucket;
+    private final String mapName;
+    private final int width;
+    private final int height;
+    private final PathQuery query;
+    private final double optimalLength;
+
+    public MovingAiScenario(int bucket, String mapName, int width, int height, PathQuery query,
+            double optimalLength) {
+        this.bucket = bucket;
+        this.mapName = mapName;
+        this.width = width;
+        this.height = height;
+        this.query = query;
+        this.optimalLength = optimalLength;
+    }
+
+    /**
+     * It reads every scenario of the file.
+     *
+     * @param path The .scen file.
+     * @return The scenarios, in the order of the file.
+     * @throws IOException If the file cannot be read or a line is not valid.
+     */
+    public static List<MovingAiScenario> load(Path path) throws IOException {
+        List<MovingAiScenario> scenarios = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("version")) {
+                    continue;
+                }
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 9) {
+                    throw new IOException("Expected 9 fields on line " + lineNumber + " of " + path);
+                }
+                try {
+                    Position start = new Position(Integer.parseInt(fields[5]), Integer.parseInt(fields[4]));
+                    Position goal = new Position(Integer.parseInt(fields[7]), Integer.parseInt(fields[6]));
+                    scenarios.add(new MovingAiScenario(Integer.parseInt(fields[0]), fields[1],
+                            Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), new PathQuery(start, goal),
+                            Double.parseDouble(fields[8])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid number on line " + lineNumber + " of " + path, e);
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public PathQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns the length of the optimal path given by the file, in cells.
+     *
+     * @return The optimal length.
+     */
+    public double getOptimalLength() {
+        return optimalLength;
+    }
+}
@@ -0,0 +1,184 @@
+package bench;
+
+import java.util.Random;
+
+import bench.GridGenerator.MapType;
+import grid.CsrGraph;
+import grid.GridModel;
+import open_set.OpenSetType;
+import solver.Algorithm;
+import solver.PathFinder;
+import solver.PathOptions;
+import solver.PathResult;
+
+/**
+ * A command line check of every algorithm on every open set type, on random
+ * grids with custom links. The links make the octile heuristic inconsistent,
+ * so A* pushes keys smaller than the ones it polled before, which a monotone
+ * open set must accept. Every search must end without an exception, find a
+ * path exactly when Dijkstra on a heap does, and return a path that follows
+ * the links of the grid for the cost it reports; the Dijkstras must also find
+ * the same cost as the reference. It prints each failure and exits with 1 if
+ * there was any.
+ *
+ * Usage: java bench.OpenSetCheck [--grids 20] [--size 32] [--links 4]
+ * [--queries 50] [--seed 42]
+ */
+public class OpenSetCheck {
+    private int gridCount = 20;
+    private int size = 32;
+    private int linkCount = 4;
+    private int queryCount = 50;
+    private long seed = 42;
+    private int failures;
+
+    public static void main(String[] args) {
+        OpenSetCheck check = new OpenSetCheck();
+        check.parseArguments(args);
+        check.run();
+        System.exit(check.failures == 0 ? 0 : 1);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--grids":
+                    gridCount = Integer.parseInt(value);
+                    break;
+                case "--size":
+                    size = Integer.parseInt(value);
+                    break;
+                case "--links":
+                    linkCount = Integer.parseInt(value);
+                    break;
+                case "--queries":
+                    queryCount = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    private void run() {
+        PathFinder pathFinder = new PathFinder();
+        int searches = 0;
+        for (int g = 0; g < gridCount; g++) {
+            Random random = new Random(seed + g);
+            GridModel gM = GridGenerator.create(MapType.RANDOM, size, seed + g);
+            addRandomLinks(gM, random);
+            CsrGraph graph = gM.getCsrGraph();
+            for (int q = 0; q < queryCount; q++) {
+                int start = randomWalkable(gM, random);
+                int goal = randomWalkable(gM, random);
+                PathResult reference = pathFinder.find(gM, start, goal,
+                        new PathOptions(Algorithm.DIJKSTRA, OpenSetType.HEAP));
+                for (Algorithm algorithm : Algorithm.values()) {
+                    for (OpenSetType openSetType : OpenSetType.values()) {
+                        for (boolean parallel : new boolean[] { false, true }) {
+                            if (parallel && algorithm != Algorithm.BIDIRECTIONAL_ASTAR
+                                    && algorithm != Algorithm.BIDIRECTIONAL_DIJKSTRA) {
+                                continue;
+                            }
+                            PathOptions options = new PathOptions(algorithm, openSetType, parallel);
+                            String name = String.format("grid %d, %d -> %d, %s %s%s", g, start, goal, algorithm,
+                                    openSetType, parallel ? " parallel" : "");
+                            check(name, gM, graph, start, goal, options, reference, pathFinder);
+                            searches++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.printf("%d searches, %d failures%n", searches, failures);
+    }
+
+    /**
+     * It runs one search and prints why its result is wrong, if it is.
+     */
+    private void check(String name, GridModel gM, CsrGraph graph, int start, int goal, PathOptions options,
+            PathResult reference, PathFinder pathFinder) {
+        PathResult result;
+        try {
+            result = pathFinder.find(gM, start, goal, options);
+        } catch (RuntimeException e) {
+            fail(name, e.toString());
+            return;
+        }
+        if (result.isFound() != reference.isFound()) {
+            fail(name, result.isFound() ? "found a path Dijkstra did not" : "found no path");
+            return;
+        }
+        if (!result.isFound()) {
+            return;
+        }
+        if (result.getCell(0) != start || result.getCell(result.getLength() - 1) != goal) {
+            fail(name, "the path does not join the start and goal");
+            return;
+        }
+        int cost = 0;
+        for (int i = 1; i < result.getLength(); i++) {
+            int weight = linkWeight(graph, result.getCell(i - 1), result.getCell(i));
+            if (weight < 0 || !gM.isWalkable(result.getCell(i))) {
+                fail(name, "no link from " + result.getCell(i - 1) + " to " + result.getCell(i));
+                return;
+            }
+            cost += weight;
+        }
+        Algorithm algorithm = options.getAlgorithm();
+        boolean exact = algorithm == Algorithm.DIJKSTRA || algorithm == Algorithm.BIDIRECTIONAL_DIJKSTRA;
+        if (cost != result.getCost()) {
+            fail(name, "cost " + result.getCost() + " but the path costs " + cost);
+        } else if (cost < reference.getCost() || exact && cost != reference.getCost()) {
+            fail(name, "cost " + cost + " instead of " + reference.getCost());
+        }
+    }
+
+    private void fail(String name, String reason) {
+        failures++;
+        System.out.println("FAIL " + name + ": " + reason);
+    }
+
+    /**
+     * Returns the weight of the cheapest link from one cell to the other, or -1
+     * if there is none.
+     */
+    private static int linkWeight(CsrGraph graph, int from, int to) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int weight = -1;
+        for (int edge = offsets[from]; edge < offsets[from + 1]; edge++) {
+            if (targets[edge] == to && (weight < 0 || weights[edge] < weight)) {
+                weight = weights[edge];
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * It links pairs of walkable cells far apart for less than their octile
+     * distance, one way or both ways.
+     */
+    private void addRandomLinks(GridModel gM, Random random) {
+        for (int i = 0; i < linkCount; i++) {
+            int from = randomWalkable(gM, random);
+            int to = randomWalkable(gM, random);
+            if (from != to) {
+                gM.getNodeModel(from).link(gM.getNodeModel(to), 10 + random.nextInt(30), random.nextBoolean());
+            }
+        }
+    }
+
+    private static int randomWalkable(GridModel gM, Random random) {
+        int cell;
+        do {
+            cell = random.nextInt(gM.getSize());
+        } while (!gM.isWalkable(cell));
+        return cell;
+    }
+}
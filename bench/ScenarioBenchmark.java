@@ -0,0 +1,211 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.GridModel;
+import open_set.OpenSetType;
+import solver.Algorithm;
+import solver.ContractionHierarchy;
+import solver.ContractionHierarchyQuery;
+import solver.LandmarkHeuristic;
+import solver.PathFinder;
+import solver.PathOptions;
+import solver.PathQuery;
+import solver.PathResult;
+
+/**
+ * A command line runner of the scenarios of a MovingAI benchmark. It solves
+ * every scenario of the .scen file on the .map file with each algorithm,
+ * checks its cost against the one found by Dijkstra, and reports the queries
+ * per second and the 50th, 90th and 99th percentiles and maximum of the time
+ * of one query.
+ *
+ * Usage: java bench.ScenarioBenchmark --map arena.map --scen arena.map.scen
+ * [--open heap] [--rounds 5] [--landmarks 8] [--contraction true] [--mapped
+ * arena.grid]
+ *
+ * The costs of the .scen file forbid cutting corners and cost a diagonal
+ * sqrt(2), so they are not the costs of this project. The Dijkstra reference
+ * is only checked to be no longer than ten times the length of the file, which
+ * catches a misread map or scenario. With --mapped, the map is converted to
+ * that GridFile and searched through a MappedGridModel instead of a GridModel.
+ * With --landmarks and --contraction, ALT and a contraction hierarchy are
+ * measured too, as in SolverBenchmark.
+ */
+public class ScenarioBenchmark {
+    private static final int WARMUP_ROUNDS = 1;
+    // Scenario costs are given with 8 decimals
+    private static final double LENGTH_TOLERANCE = 1e-6;
+
+    private Path mapPath;
+    private Path scenarioPath;
+    private Path gridFilePath;
+    private OpenSetType openSetType = OpenSetType.HEAP;
+    private int rounds = 5;
+    private int landmarkCount = 0;
+    private boolean contraction = false;
+
+    private GridModel gM;
+    private List<MovingAiScenario> scenarios;
+    private int[] referenceCosts;
+
+    public static void main(String[] args) throws IOException, NodePositionOutOfModelBounds {
+        ScenarioBenchmark benchmark = new ScenarioBenchmark();
+        benchmark.parseArguments(args);
+        benchmark.run();
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--map":
+                    mapPath = Paths.get(value);
+                    break;
+                case "--scen":
+                    scenarioPath = Paths.get(value);
+                    break;
+                case "--mapped":
+                    gridFilePath = Paths.get(value);
+                    break;
+                case "--open":
+                    openSetType = OpenSetType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+                    break;
+                case "--rounds":
+                    rounds = Integer.parseInt(value);
+                    break;
+                case "--landmarks":
+                    landmarkCount = Integer.parseInt(value);
+                    break;
+                case "--contraction":
+                    contraction = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (mapPath == null || scenarioPath == null) {
+            throw new IllegalArgumentException("Both --map and --scen are required");
+        }
+    }
+
+    private void run() throws IOException, NodePositionOutOfModelBounds {
+        long loadStart = System.nanoTime();
+        gM = gridFilePath != null ? MovingAiMap.loadMapped(mapPath, gridFilePath) : MovingAiMap.load(mapPath);
+        scenarios = MovingAiScenario.load(scenarioPath);
+        for (MovingAiScenario scenario : scenarios) {
+            if (scenario.getWidth() != gM.getCols() || scenario.getHeight() != gM.getRows()) {
+                throw new IllegalArgumentException("Scenario for a " + scenario.getWidth() + "x"
+                        + scenario.getHeight() + " map on a " + gM.getCols() + "x" + gM.getRows() + " map");
+            }
+        }
+        gM.getCsrGraph();
+        System.out.printf(Locale.ROOT, "%s: %dx%d, %d scenarios, loaded in %.0f ms%n", mapPath.getFileName(),
+                gM.getCols(), gM.getRows(), scenarios.size(), (System.nanoTime() - loadStart) / 1e6);
+        computeReference();
+
+        System.out.printf("%-22s %-7s %12s %10s %10s %10s %10s %8s%n", "algorithm", "open", "queries/s",
+                "p50 us", "p90 us", "p99 us", "max us", "wrong");
+        for (Algorithm algorithm : Algorithm.values()) {
+            measure(algorithm.toString(), new PathOptions(algorithm, openSetType));
+        }
+        if (landmarkCount > 0) {
+            measure("ALT", new PathOptions(Algorithm.ASTAR, openSetType, false,
+                    new LandmarkHeuristic(gM, landmarkCount)));
+        }
+        if (contraction) {
+            long buildStart = System.nanoTime();
+            ContractionHierarchy hierarchy = new ContractionHierarchy(gM);
+            System.out.printf(Locale.ROOT, "%-22s built in %.0f ms, %d shortcuts%n", "CH",
+                    (System.nanoTime() - buildStart) / 1e6, hierarchy.getShortcutCount());
+            ContractionHierarchyQuery query = hierarchy.createQuery();
+            measure("CH", "-", q -> query.find(q.getStart(), q.getGoal()));
+        }
+    }
+
+    /**
+     * It solves every scenario with Dijkstra, the costs the other algorithms are
+     * checked against, and tells how many of them the file contradicts.
+     */
+    private void computeReference() throws NodePositionOutOfModelBounds {
+        PathFinder pathFinder = new PathFinder();
+        PathOptions options = new PathOptions(Algorithm.DIJKSTRA, openSetType);
+        referenceCosts = new int[scenarios.size()];
+        int unreachable = 0;
+        int longer = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            MovingAiScenario scenario = scenarios.get(i);
+            PathQuery query = scenario.getQuery();
+            PathResult result = pathFinder.find(gM, query.getStart(), query.getGoal(), options);
+            referenceCosts[i] = result.getCost();
+            if (!result.isFound()) {
+                unreachable++;
+            } else if (result.getCost() > scenario.getOptimalLength() * 10 + LENGTH_TOLERANCE) {
+                longer++;
+            }
+        }
+        System.out.printf("Dijkstra reference: %d unreachable, %d longer than the scenario file allows%n",
+                unreachable, longer);
+    }
+
+    private void measure(String name, PathOptions options) throws NodePositionOutOfModelBounds {
+        PathFinder pathFinder = new PathFinder();
+        measure(name, options.getOpenSetType().toString(),
+                query -> pathFinder.find(gM, query.getStart(), query.getGoal(), options));
+    }
+
+    /**
+     * It solves every scenario once to warm up, then the given number of rounds
+     * timing each query, and prints one line of results.
+     */
+    private void measure(String name, String openSet, QueryRunner runner) throws NodePositionOutOfModelBounds {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (MovingAiScenario scenario : scenarios) {
+                runner.find(scenario.getQuery());
+            }
+        }
+
+        long[] latencies = new long[rounds * scenarios.size()];
+        int wrong = 0;
+        int done = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < scenarios.size(); i++) {
+                long queryStart = System.nanoTime();
+                PathResult result = runner.find(scenarios.get(i).getQuery());
+                latencies[done++] = System.nanoTime() - queryStart;
+                if (round == 0 && result.getCost() != referenceCosts[i]) {
+                    wrong++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%-22s %-7s %12.1f %10.1f %10.1f %10.1f %10.1f %8d%n", name, openSet,
+                done * 1e9 / elapsed, percentile(latencies, 0.5) / 1e3, percentile(latencies, 0.9) / 1e3,
+                percentile(latencies, 0.99) / 1e3, percentile(latencies, 1) / 1e3, wrong);
+    }
+
+    /**
+     * Returns the nearest-rank percentile of the sorted values, or 0 if there is
+     * none.
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private interface QueryRunner {
+        PathResult find(PathQuery query) throws NodePositionOutOfModelBounds;
+    }
+}
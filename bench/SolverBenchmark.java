@@ -0,0 +1,190 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import bench.GridGenerator.MapType;
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.GridModel;
+import open_set.OpenSetType;
+import solver.Algorithm;
+import solver.ContractionHierarchy;
+import solver.ContractionHierarchyQuery;
+import solver.LandmarkHeuristic;
+import solver.PathFinder;
+import solver.PathOptions;
+import solver.PathQuery;
+import solver.PathResult;
+
+/**
+ * A command line benchmark of the search algorithms and open sets on seeded
+ * open, random-wall and maze grids. For every combination it warms up, then
+ * runs the same queries over and over for a fixed time and reports the
+ * queries per second, the bytes allocated per query and the cells expanded
+ * per query.
+ *
+ * Usage: java bench.SolverBenchmark [--sizes 64,256,1024] [--maps
+ * open,random,maze] [--queries 100] [--seconds 2] [--seed 42] [--landmarks 8]
+ * [--contraction true]
+ *
+ * With --landmarks, A* is also measured with the ALT heuristic of that many
+ * landmarks, reported as the ALT algorithm. With --contraction, the queries
+ * are also run on a contraction hierarchy of each grid, reported as the CH
+ * algorithm after the time its preprocessing took.
+ *
+ * A 4096x4096 GridModel holds 16M NodeModels and needs a heap of several
+ * gigabytes (-Xmx).
+ */
+public class SolverBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+
+    private int[] sizes = { 64, 256, 1024 };
+    private List<MapType> mapTypes = new ArrayList<>(List.of(MapType.values()));
+    private int queryCount = 100;
+    private double seconds = 2;
+    private long seed = 42;
+    private int landmarkCount = 0;
+    private boolean contraction = false;
+
+    public static void main(String[] args) throws NodePositionOutOfModelBounds {
+        SolverBenchmark benchmark = new SolverBenchmark();
+        benchmark.parseArguments(args);
+        benchmark.run();
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--sizes":
+                    String[] sizeValues = value.split(",");
+                    sizes = new int[sizeValues.length];
+                    for (int j = 0; j < sizeValues.length; j++) {
+                        sizes[j] = Integer.parseInt(sizeValues[j].trim());
+                    }
+                    break;
+                case "--maps":
+                    mapTypes.clear();
+                    for (String mapValue : value.split(",")) {
+                        mapTypes.add(MapType.valueOf(mapValue.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--queries":
+                    queryCount = Integer.parseInt(value);
+                    break;
+                case "--seconds":
+                    seconds = Double.parseDouble(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--landmarks":
+                    landmarkCount = Integer.parseInt(value);
+                    break;
+                case "--contraction":
+                    contraction = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    private void run() throws NodePositionOutOfModelBounds {
+        System.out.printf("%-7s %6s %-22s %-7s %12s %14s %14s%n", "map", "size", "algorithm", "open",
+                "queries/s", "bytes/query", "expanded/query");
+        for (MapType mapType : mapTypes) {
+            for (int size : sizes) {
+                GridModel gM = GridGenerator.create(mapType, size, seed);
+                List<PathQuery> queries = GridGenerator.createQueries(gM, queryCount, seed);
+                gM.getCsrGraph();
+                for (Algorithm algorithm : Algorithm.values()) {
+                    for (OpenSetType openSetType : OpenSetType.values()) {
+                        measure(gM, queries, mapType, algorithm.toString(), new PathOptions(algorithm, openSetType));
+                    }
+                }
+                if (landmarkCount > 0) {
+                    LandmarkHeuristic heuristic = new LandmarkHeuristic(gM, landmarkCount);
+                    for (OpenSetType openSetType : OpenSetType.values()) {
+                        measure(gM, queries, mapType, "ALT",
+                                new PathOptions(Algorithm.ASTAR, openSetType, false, heuristic));
+                    }
+                }
+                if (contraction) {
+                    long buildStart = System.nanoTime();
+                    ContractionHierarchy hierarchy = new ContractionHierarchy(gM);
+                    System.out.printf(Locale.ROOT, "%-7s %6d %-22s built in %.0f ms, %d shortcuts%n", mapType,
+                            gM.getRows(), "CH", (System.nanoTime() - buildStart) / 1e6, hierarchy.getShortcutCount());
+                    ContractionHierarchyQuery query = hierarchy.createQuery();
+                    measure(gM, queries, mapType, "CH", "-", q -> query.find(q.getStart(), q.getGoal()));
+                }
+            }
+        }
+    }
+
+    /**
+     * It runs the queries until the time is up and prints one line of results.
+     */
+    private void measure(GridModel gM, List<PathQuery> queries, MapType mapType, String name,
+            PathOptions options) throws NodePositionOutOfModelBounds {
+        PathFinder pathFinder = new PathFinder();
+        measure(gM, queries, mapType, name, options.getOpenSetType().toString(),
+                query -> pathFinder.find(gM, query.getStart(), query.getGoal(), options));
+    }
+
+    private void measure(GridModel gM, List<PathQuery> queries, MapType mapType, String name, String openSet,
+            QueryRunner runner) throws NodePositionOutOfModelBounds {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runQueries(runner, queries);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = allocatedBytes(threadId);
+        long expanded = 0;
+        long done = 0;
+        long start = System.nanoTime();
+        long deadline = start + (long) (seconds * 1e9);
+        do {
+            expanded += runQueries(runner, queries);
+            done += queries.size();
+        } while (System.nanoTime() < deadline);
+        long elapsed = System.nanoTime() - start;
+        long bytes = allocatedBytes(threadId) - bytesBefore;
+
+        System.out.printf(Locale.ROOT, "%-7s %6d %-22s %-7s %12.1f %14.1f %14.1f%n", mapType, gM.getRows(),
+                name, openSet, done * 1e9 / elapsed, (double) bytes / done,
+                (double) expanded / done);
+    }
+
+    /**
+     * It runs every query once.
+     *
+     * @return The number of cells expanded by all the queries.
+     */
+    private long runQueries(QueryRunner runner, List<PathQuery> queries) throws NodePositionOutOfModelBounds {
+        long expanded = 0;
+        for (PathQuery query : queries) {
+            PathResult result = runner.find(query);
+            expanded += result.getExpanded();
+        }
+        return expanded;
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the thread, or 0 if the
+     * JVM cannot tell.
+     */
+    private static long allocatedBytes(long threadId) {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(threadId);
+        }
+        return 0;
+    }
+
+    private interface QueryRunner {
+        PathResult find(PathQuery query) throws NodePositionOutOfModelBounds;
+    }
+}
@@ -0,0 +1,8 @@
+package custom_exceptions;
+
+public class SearchInterrupted extends RuntimeException {
+
+    public SearchInterrupted(String errorMessage, Throwable cause) {
+        super(errorMessage, cause);
+    }
+}
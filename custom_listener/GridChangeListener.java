@@ -0,0 +1,5 @@
+package custom_listener;
+
+public interface GridChangeListener {
+    void walkabilityChanged(int cell, boolean walkable);
+}
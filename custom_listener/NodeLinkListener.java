@@ -0,0 +1,7 @@
+package custom_listener;
+
+import node.NodeModel;
+
+public interface NodeLinkListener {
+    void nodeLinksChanged(NodeModel sourceNodeModel);
+}
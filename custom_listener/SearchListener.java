@@ -0,0 +1,7 @@
+package custom_listener;
+
+public interface SearchListener {
+    void nodeExpanded(int cell);
+
+    void nodeQueued(int cell, int gCost, int hCost, boolean newlyQueued);
+}
@@ -10,7 +10,7 @@ import grid.GridModel;
  */
 public class Demo {
 
-    private static final int SIZE = 4;
+    private static final int SIZE = 32;
 
     public static void main(String[] args) {
         JFrame f = new JFrame("A* VS Djikstra");
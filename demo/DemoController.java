@@ -1,9 +1,12 @@
 package demo;
 
 import grid.GridModel;
-import solver.Solver;
+import solver.DStarLite;
+import solver.PathCache;
 import solver.SolverAStar;
+import solver.SolverDStarLite;
 import solver.SolverDijkstra;
+import solver.TraceReplayer;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
@@ -15,14 +18,30 @@ import java.util.Random;
  */
 public class DemoController implements KeyListener {
     private static final Random rd = new Random();
+    private static final int PATH_CACHE_CAPACITY = 256;
+    private static final int SCRUB_STEP = 50;
     GridModel gridModel0;
     GridModel gridModel1;
+    PathCache pathCache0;
+    PathCache pathCache1;
+    DStarLite planner0;
+    DStarLite planner1;
+    TraceReplayer replayer0;
+    TraceReplayer replayer1;
     SolverAStar solverAStar;
     SolverDijkstra solverDijkstra;
+    SolverDStarLite solverDStarLite0;
+    SolverDStarLite solverDStarLite1;
 
     public DemoController(GridModel gM0, GridModel gM1) {
         gridModel0 = gM0;
         gridModel1 = gM1;
+        pathCache0 = new PathCache(gM0, PATH_CACHE_CAPACITY);
+        pathCache1 = new PathCache(gM1, PATH_CACHE_CAPACITY);
+        planner0 = new DStarLite(gM0);
+        planner1 = new DStarLite(gM1);
+        replayer0 = new TraceReplayer(gM0);
+        replayer1 = new TraceReplayer(gM1);
     }
 
     /**
@@ -48,6 +67,12 @@ public class DemoController implements KeyListener {
             if (solverDijkstra != null) {
                 solverDijkstra.interrupt();
             }
+            if (solverDStarLite0 != null) {
+                solverDStarLite0.interrupt();
+                solverDStarLite1.interrupt();
+            }
+            replayer0.stop();
+            replayer1.stop();
             gridModel0.resetGrid();
             gridModel1.resetGrid();
 
@@ -55,23 +80,57 @@ public class DemoController implements KeyListener {
         } else if (keyCode == KeyEvent.VK_S) {
             solverAStar = new SolverAStar(gridModel0);
             solverDijkstra = new SolverDijkstra(gridModel1);
+            solverAStar.setPathCache(pathCache0);
+            solverDijkstra.setPathCache(pathCache1);
+            solverAStar.setTraceReplayer(replayer0);
+            solverDijkstra.setTraceReplayer(replayer1);
             solverAStar.start();
             solverDijkstra.start();
 
-            // Decreasing the pause time between each step of the solver.
+            // Replanning on both grids, only the cells affected by the walls
+            // changed since the last replan are explored.
+        } else if (keyCode == KeyEvent.VK_D) {
+            solverDStarLite0 = new SolverDStarLite(gridModel0, planner0);
+            solverDStarLite1 = new SolverDStarLite(gridModel1, planner1);
+            solverDStarLite0.setTraceReplayer(replayer0);
+            solverDStarLite1.setTraceReplayer(replayer1);
+            solverDStarLite0.start();
+            solverDStarLite1.start();
+
+            // Decreasing the pause time between each step of the replays.
         } else if (keyCode == 109) {
-            Solver.decrementPause();
+            replayer0.decrementPause();
+            replayer1.decrementPause();
 
-            // Increasing the pause time between each step of the solver.
+            // Increasing the pause time between each step of the replays.
         } else if (keyCode == 107) {
-            Solver.incrementPause();
+            replayer0.incrementPause();
+            replayer1.incrementPause();
+
+            // Pausing or resuming the replays.
+        } else if (keyCode == KeyEvent.VK_SPACE) {
+            if (replayer0.isPlaying() || replayer1.isPlaying()) {
+                replayer0.pause();
+                replayer1.pause();
+            } else {
+                replayer0.resume();
+                replayer1.resume();
+            }
+
+            // Moving the replays back or forward, they stay paused.
+        } else if (keyCode == KeyEvent.VK_LEFT) {
+            replayer0.step(-SCRUB_STEP);
+            replayer1.step(-SCRUB_STEP);
+        } else if (keyCode == KeyEvent.VK_RIGHT) {
+            replayer0.step(SCRUB_STEP);
+            replayer1.step(SCRUB_STEP);
 
             // Resetting the grid.
         } else if (keyCode == KeyEvent.VK_C) {
-            gridModel0.resetTags();
-            gridModel1.resetTags();
-            gridModel0.resetGridData();
-            gridModel1.resetGridData();
+            replayer0.stop();
+            replayer1.stop();
+            gridModel0.resetSearchData();
+            gridModel1.resetSearchData();
         } else if (keyCode == KeyEvent.VK_O) {
             placeRandomWalls();
         }
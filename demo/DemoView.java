@@ -33,10 +33,10 @@ public class DemoView extends JPanel {
         GridView gV1 = rightGridController.getGridView();
         gV1.toggleFLabels();
 
-        gV0.linkNodeViewToModels(gM0);
-        gV0.linkNodeViewToModels(gM1);
-        gV1.linkNodeViewToModels(gM0);
-        gV1.linkNodeViewToModels(gM1);
+        gV0.linkToModel(gM0);
+        gV0.linkToModel(gM1);
+        gV1.linkToModel(gM0);
+        gV1.linkToModel(gM1);
 
         add(gV0);
         add(gV1);
@@ -0,0 +1,341 @@
+package grid;
+
+import java.util.Arrays;
+
+import custom_listener.GridChangeListener;
+
+/**
+ * The connected components of the walkable cells of a grid, kept in a
+ * union-find, so that a query whose start and goal lie in two different
+ * components fails at once instead of exploring every cell it can reach.
+ * Links are followed both ways: with one-way custom links, two cells of the
+ * same component may still not reach each other, but two cells of different
+ * components never do.
+ * The index follows the walls of its grid. A cell that stops being a wall is
+ * merged with its neighbours. A cell that becomes one usually leaves the
+ * components as they were: if its walkable neighbours are still linked to each
+ * other around it, it is simply left out. Otherwise, and after a change of the
+ * links, the components are computed again on the next query. Several new
+ * walls handled by the same query are not checked one by one, since each would
+ * be checked against the others already in place: they make the components be
+ * computed again too. A wall keeps its place in the union-find but is never
+ * connected to anything.
+ * The queries read a snapshot of the components, the root of each cell, without
+ * locking. Only a query that finds the grid changed since the snapshot takes the
+ * lock, to handle the changes and publish a new one.
+ */
+public class ComponentIndex implements GridChangeListener {
+    private static final int[] RING_ROWS = { -1, -1, 0, 1, 1, 1, 0, -1 };
+    private static final int[] RING_COLS = { 0, 1, 1, 1, 0, -1, -1, -1 };
+
+    private final GridModel gM;
+    // The parent of each cell, or minus the size of its set for a root
+    private final int[] parents;
+    private final Object pendingLock = new Object();
+    private int[] pendingCells = new int[16];
+    private int pendingCount;
+    private CsrGraph graph;
+    private int version;
+    private int rebuildCount;
+    private volatile Snapshot snapshot;
+
+    /**
+     * It computes the components of the grid. The grid tells the index about
+     * the walls it changes.
+     *
+     * @param gM The grid to index.
+     */
+    ComponentIndex(GridModel gM) {
+        this.gM = gM;
+        parents = new int[gM.getSize()];
+        rebuild();
+        publish();
+    }
+
+    /**
+     * It remembers the cell, to be handled by the next query.
+     */
+    @Override
+    public void walkabilityChanged(int cell, boolean walkable) {
+        synchronized (pendingLock) {
+            if (pendingCount == pendingCells.length) {
+                pendingCells = Arrays.copyOf(pendingCells, pendingCount * 2);
+            }
+            pendingCells[pendingCount++] = cell;
+        }
+    }
+
+    /**
+     * Returns true if both cells are walkable and in the same component.
+     *
+     * @param start The index of the start cell.
+     * @param goal  The index of the goal cell.
+     * @return False if no path can join the two cells.
+     */
+    public boolean isConnected(int start, int goal) {
+        int[] components = current();
+        if (!gM.isWalkable(start) || !gM.isWalkable(goal)) {
+            return false;
+        }
+        return components[start] == components[goal];
+    }
+
+    /**
+     * Returns the component of the cell, named after one of its cells.
+     *
+     * @param cell The index of the cell.
+     * @return The index of the cell naming the component, or -1 for a wall.
+     */
+    public int getComponent(int cell) {
+        int[] components = current();
+        return gM.isWalkable(cell) ? components[cell] : -1;
+    }
+
+    /**
+     * Returns the number of times the components were computed from scratch,
+     * the first time included.
+     *
+     * @return The number of full computations.
+     */
+    public synchronized int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Returns the components of the current version of the grid, handling the
+     * changes first if the snapshot is older.
+     */
+    private int[] current() {
+        Snapshot current = snapshot;
+        if (current.version != gM.getVersion()) {
+            synchronized (this) {
+                update();
+                current = snapshot;
+            }
+        }
+        return current.components;
+    }
+
+    /**
+     * It handles the walls changed since the last query and publishes the new
+     * components. The components are computed again if the links changed, if
+     * more than one cell became a wall, if a new wall may split a component, or
+     * if the version of the grid tells that a change was missed.
+     */
+    private void update() {
+        int[] cells;
+        int count;
+        synchronized (pendingLock) {
+            if (pendingCount == 0 && snapshot.version == gM.getVersion()) {
+                return;
+            }
+            cells = pendingCells;
+            count = pendingCount;
+            pendingCells = new int[16];
+            pendingCount = 0;
+        }
+        if (gM.getCsrGraph() != graph) {
+            rebuild();
+            publish();
+            return;
+        }
+        int newWalls = 0;
+        for (int i = 0; i < count; i++) {
+            if (!gM.isWalkable(cells[i])) {
+                newWalls++;
+            }
+        }
+        boolean split = newWalls > 1;
+        for (int i = 0; i < count && !split; i++) {
+            int cell = cells[i];
+            if (gM.isWalkable(cell)) {
+                merge(cell);
+            } else {
+                split = !staysConnected(cell);
+            }
+        }
+        version += count;
+        if (split || version != gM.getVersion()) {
+            rebuild();
+        }
+        publish();
+    }
+
+    private void rebuild() {
+        version = gM.getVersion();
+        graph = gM.getCsrGraph();
+        Arrays.fill(parents, -1);
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        for (int cell = 0; cell < parents.length; cell++) {
+            if (!gM.isWalkable(cell)) {
+                continue;
+            }
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                if (gM.isWalkable(targets[edge])) {
+                    union(cell, targets[edge]);
+                }
+            }
+        }
+        rebuildCount++;
+    }
+
+    /**
+     * It publishes the root of each cell, for the queries to read without the
+     * lock.
+     */
+    private void publish() {
+        int[] components = new int[parents.length];
+        for (int cell = 0; cell < components.length; cell++) {
+            components[cell] = find(cell);
+        }
+        snapshot = new Snapshot(version, components);
+    }
+
+    /**
+     * It merges the cell that stopped being a wall with the walkable cells it
+     * is linked to, or linked from.
+     */
+    private void merge(int cell) {
+        for (CsrGraph links : new CsrGraph[] { graph, graph.getReverse() }) {
+            int[] offsets = links.getOffsets();
+            int[] targets = links.getTargets();
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                if (gM.isWalkable(targets[edge])) {
+                    union(cell, targets[edge]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the new wall cannot have split its component: it is only
+     * linked to the 8 cells around it, and its walkable neighbours are linked
+     * to each other without it, through the cells of that ring.
+     */
+    private boolean staysConnected(int cell) {
+        int cols = gM.getCols();
+        int row = cell / cols;
+        int col = cell % cols;
+        int neighbours = 0;
+        for (CsrGraph links : new CsrGraph[] { graph, graph.getReverse() }) {
+            int[] offsets = links.getOffsets();
+            int[] targets = links.getTargets();
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                int target = targets[edge];
+                if (!gM.isWalkable(target)) {
+                    continue;
+                }
+                int slot = ringSlot(row, col, target, cols);
+                if (slot < 0) {
+                    return false;
+                }
+                neighbours |= 1 << slot;
+            }
+        }
+        if (Integer.bitCount(neighbours) <= 1) {
+            return true;
+        }
+
+        int[] ringParents = { 0, 1, 2, 3, 4, 5, 6, 7 };
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        for (int slot = 0; slot < 8; slot++) {
+            int ringRow = row + RING_ROWS[slot];
+            int ringCol = col + RING_COLS[slot];
+            if (ringRow < 0 || ringRow >= gM.getRows() || ringCol < 0 || ringCol >= cols) {
+                continue;
+            }
+            int ringCell = ringRow * cols + ringCol;
+            if (!gM.isWalkable(ringCell)) {
+                continue;
+            }
+            for (int edge = offsets[ringCell]; edge < offsets[ringCell + 1]; edge++) {
+                int target = targets[edge];
+                int other = target == cell ? -1 : ringSlot(row, col, target, cols);
+                if (other >= 0 && gM.isWalkable(target)) {
+                    ringParents[findSlot(ringParents, slot)] = findSlot(ringParents, other);
+                }
+            }
+        }
+        int root = -1;
+        for (int slot = 0; slot < 8; slot++) {
+            if ((neighbours & 1 << slot) != 0) {
+                int slotRoot = findSlot(ringParents, slot);
+                if (root >= 0 && slotRoot != root) {
+                    return false;
+                }
+                root = slotRoot;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the place of the target in the ring around the cell at the row
+     * and column, or -1 if it is not one of the 8 cells around it.
+     */
+    private static int ringSlot(int row, int col, int target, int cols) {
+        int dRow = target / cols - row;
+        int dCol = target % cols - col;
+        for (int slot = 0; slot < 8; slot++) {
+            if (RING_ROWS[slot] == dRow && RING_COLS[slot] == dCol) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int findSlot(int[] ringParents, int slot) {
+        while (ringParents[slot] != slot) {
+            slot = ringParents[slot];
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the root of the set of the cell, halving the path to it.
+     */
+    private int find(int cell) {
+        while (parents[cell] >= 0) {
+            int parent = parents[cell];
+            if (parents[parent] >= 0) {
+                parents[cell] = parents[parent];
+            }
+            cell = parent;
+        }
+        return cell;
+    }
+
+    /**
+     * It joins the sets of the two cells, the smaller under the larger.
+     */
+    private void union(int cellA, int cellB) {
+        int rootA = find(cellA);
+        int rootB = find(cellB);
+        if (rootA == rootB) {
+            return;
+        }
+        if (parents[rootA] > parents[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parents[rootA] += parents[rootB];
+        parents[rootB] = rootA;
+    }
+
+    /**
+     * The root of each cell for one version of the grid. It is never changed
+     * once published.
+     */
+    private static final class Snapshot {
+        private final int version;
+        private final int[] components;
+
+        private Snapshot(int version, int[] components) {
+            this.version = version;
+            this.components = components;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package grid;
+
+/**
+ * An immutable snapshot of the links between the cells of a grid, in
+ * compressed sparse row form. Cells are numbered row by row, and the edges
+ * leaving cell i are the entries offsets[i] to offsets[i + 1] - 1 of the
+ * targets and weights arrays.
+ * The graph holds every link, walls included; walkability is looked up
+ * separately so that placing a wall does not require a rebuild.
+ * The graph is a uniform grid when each cell is linked to its 8 neighbours and
+ * to nothing else, with the octile costs of GridModel.getDistance.
+ */
+public class CsrGraph {
+    private final int rows;
+    private final int cols;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final boolean uniformGrid;
+    private volatile CsrGraph reverse;
+
+    public CsrGraph(int rows, int cols, int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length != rows * cols + 1 || targets.length != weights.length
+                || offsets[offsets.length - 1] != targets.length) {
+            throw new IllegalArgumentException("Inconsistent compressed sparse row arrays");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.uniformGrid = checkUniformGrid();
+    }
+
+    /**
+     * Builds the graph of a uniform grid straight from its size, for grids that
+     * have no NodeModels to copy the links from.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @return A new CsrGraph object, linking each cell to its 8 neighbours.
+     */
+    public static CsrGraph createUniformGrid(int rows, int cols) {
+        int size = rows * cols;
+        int[] offsets = new int[size + 1];
+        for (int cell = 0; cell < size; cell++) {
+            int row = cell / cols;
+            int col = cell % cols;
+            int neighbourRows = Math.min(row + 1, rows - 1) - Math.max(row - 1, 0) + 1;
+            int neighbourCols = Math.min(col + 1, cols - 1) - Math.max(col - 1, 0) + 1;
+            offsets[cell + 1] = offsets[cell] + neighbourRows * neighbourCols - 1;
+        }
+        int[] targets = new int[offsets[size]];
+        int[] weights = new int[offsets[size]];
+        int edge = 0;
+        for (int cell = 0; cell < size; cell++) {
+            int row = cell / cols;
+            int col = cell % cols;
+            // Row by row, so that the targets come sorted
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dCol = -1; dCol <= 1; dCol++) {
+                    int targetRow = row + dRow;
+                    int targetCol = col + dCol;
+                    if ((dRow == 0 && dCol == 0) || targetRow < 0 || targetRow >= rows || targetCol < 0
+                            || targetCol >= cols) {
+                        continue;
+                    }
+                    targets[edge] = targetRow * cols + targetCol;
+                    weights[edge++] = dRow != 0 && dCol != 0 ? 14 : 10;
+                }
+            }
+        }
+        return new CsrGraph(rows, cols, offsets, targets, weights);
+    }
+
+    /**
+     * Returns true if each cell is linked to its 8 neighbours, and to nothing
+     * else, at a cost of 10 for a straight move and 14 for a diagonal one. Grid
+     * specific searches such as Jump Point Search require it.
+     *
+     * @return A boolean value.
+     */
+    public boolean isUniformGrid() {
+        return uniformGrid;
+    }
+
+    /**
+     * Returns the transposed graph, in which every link goes the other way, for
+     * searches that walk backward from the goal. It is built on the first call.
+     * A uniform grid is its own reverse.
+     *
+     * @return A CsrGraph object.
+     */
+    public CsrGraph getReverse() {
+        if (uniformGrid) {
+            return this;
+        }
+        CsrGraph graph = reverse;
+        if (graph == null) {
+            synchronized (this) {
+                graph = reverse;
+                if (graph == null) {
+                    graph = buildReverse();
+                    reverse = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    private CsrGraph buildReverse() {
+        int size = getSize();
+        int[] reverseOffsets = new int[size + 1];
+        for (int edge = 0; edge < targets.length; edge++) {
+            reverseOffsets[targets[edge] + 1]++;
+        }
+        for (int cell = 0; cell < size; cell++) {
+            reverseOffsets[cell + 1] += reverseOffsets[cell];
+        }
+        int[] next = new int[size];
+        System.arraycopy(reverseOffsets, 0, next, 0, size);
+        int[] reverseTargets = new int[targets.length];
+        int[] reverseWeights = new int[targets.length];
+        for (int cell = 0; cell < size; cell++) {
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                int slot = next[targets[edge]]++;
+                reverseTargets[slot] = cell;
+                reverseWeights[slot] = weights[edge];
+            }
+        }
+        return new CsrGraph(rows, cols, reverseOffsets, reverseTargets, reverseWeights);
+    }
+
+    private boolean checkUniformGrid() {
+        for (int cell = 0; cell < getSize(); cell++) {
+            int row = cell / cols;
+            int col = cell % cols;
+            int neighbourRows = Math.min(row + 1, rows - 1) - Math.max(row - 1, 0) + 1;
+            int neighbourCols = Math.min(col + 1, cols - 1) - Math.max(col - 1, 0) + 1;
+            if (offsets[cell + 1] - offsets[cell] != neighbourRows * neighbourCols - 1) {
+                return false;
+            }
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                int distRows = Math.abs(targets[edge] / cols - row);
+                int distCols = Math.abs(targets[edge] % cols - col);
+                if (distRows > 1 || distCols > 1 || distRows + distCols == 0
+                        || weights[edge] != (distRows + distCols == 2 ? 14 : 10)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of cells in the graph.
+     *
+     * @return The number of rows times the number of columns.
+     */
+    public int getSize() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of directed edges in the graph.
+     *
+     * @return The number of edges.
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the offsets of the edges of each cell, of length size + 1. The array
+     * is shared and must not be modified.
+     *
+     * @return The offsets array.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the target cell of each edge. The array is shared and must not be
+     * modified.
+     *
+     * @return The targets array.
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * Returns the cost of each edge. The array is shared and must not be
+     * modified.
+     *
+     * @return The weights array.
+     */
+    public int[] getWeights() {
+        return weights;
+    }
+}
@@ -1,16 +1,30 @@
 package grid;
 
+import javax.swing.Timer;
+
+import node.NodeEventBatch;
+
 /**
  * The GridController class is responsible for creating a GridView object and
- * returning it
+ * returning it. The events of the nodes of the grid are batched, and the
+ * batch is flushed on the event dispatch thread once per frame, so the views
+ * only show the final state of each cell changed during the frame.
  */
 public class GridController {
+    private static final int FRAME_MILLIS = 16;
+
     protected GridModel gridModel;
     protected GridView gridView;
+    protected NodeEventBatch eventBatch;
+    protected Timer flushTimer;
 
     public GridController(GridModel gridModel) {
         this.gridModel = gridModel;
         this.gridView = new GridView(this.gridModel);
+        this.eventBatch = new NodeEventBatch();
+        this.gridModel.setEventBatch(eventBatch);
+        this.flushTimer = new Timer(FRAME_MILLIS, e -> eventBatch.flush());
+        this.flushTimer.start();
     }
 
     /**
@@ -0,0 +1,82 @@
+package grid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntPredicate;
+
+/**
+ * The binary format of a grid on disk, read by MappedGridModel. A header of
+ * HEADER_SIZE bytes, big-endian ints, holds the magic number, the version of
+ * the format, the number of rows and the number of columns; then comes one
+ * byte per cell, row by row: FLOOR for a walkable cell and WALL for a wall.
+ * The other values are reserved for terrain costs.
+ * The file of a 20000x20000 map is 400 MB, and the largest grid it can hold has
+ * Integer.MAX_VALUE - HEADER_SIZE cells, the most one mapping can address.
+ */
+public class GridFile {
+    public static final int MAGIC = 0x47524944;
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int MAX_CELLS = Integer.MAX_VALUE - HEADER_SIZE;
+
+    public static final byte FLOOR = 0;
+    public static final byte WALL = 1;
+
+    private GridFile() {
+    }
+
+    /**
+     * It writes the walls of the grid to the file, replacing it if it exists.
+     * Custom links are not saved.
+     *
+     * @param gM   The grid to write.
+     * @param path The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(GridModel gM, Path path) throws IOException {
+        write(path, gM.getRows(), gM.getCols(), gM::isWalkable);
+    }
+
+    /**
+     * It writes a grid to the file, replacing it if it exists, one row at a
+     * time, so that grids too large for the heap can be generated straight to
+     * disk. The cells are asked for once each, in the order of their index, so
+     * the predicate can read them from a stream.
+     *
+     * @param path     The file to write.
+     * @param rows     The number of rows.
+     * @param cols     The number of columns.
+     * @param walkable Tells for the index of each cell, numbered row by row,
+     *                 whether it is walkable.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path path, int rows, int cols, IntPredicate walkable) throws IOException {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > MAX_CELLS) {
+            throw new IllegalArgumentException("A grid file holds between 1 and " + MAX_CELLS + " cells");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rows).putInt(cols).flip();
+            writeFully(channel, header);
+            ByteBuffer line = ByteBuffer.allocate(cols);
+            for (int row = 0; row < rows; row++) {
+                line.clear();
+                for (int col = 0; col < cols; col++) {
+                    line.put(walkable.test(row * cols + col) ? FLOOR : WALL);
+                }
+                line.flip();
+                writeFully(channel, line);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package grid;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import custom_exceptions.NodePositionOutOfModelBounds;
+import custom_listener.GridChangeListener;
+import custom_listener.NodeLinkListener;
 import custom_listener.NodeTagListener;
+import node.NodeEventBatch;
 import node.NodeModel;
 import util.NodeTag;
 import util.Position;
@@ -13,18 +18,69 @@ import util.Position;
  * It's a 2D array of NodeModels, with some methods to help with the A*
  * algorithm
  */
-public class GridModel implements NodeTagListener {
+public class GridModel implements NodeTagListener, NodeLinkListener {
 
     protected NodeModel[][] nodeModels;
     protected NodeModel startNode;
     protected NodeModel endNode;
+    protected boolean[] walkable;
+    protected volatile CsrGraph csrGraph;
+    protected volatile int version;
+    protected volatile ComponentIndex componentIndex;
+    protected int[] overlayCells;
+    protected int overlayCount;
+    protected boolean[] inOverlay;
+    private final int rows;
+    private final int cols;
+    private List<GridChangeListener> changeListeners = new ArrayList<>(1);
 
     public GridModel(int rows, int cols) {
+        this(rows, cols, true);
+    }
+
+    /**
+     * A grid with or without NodeModels. A subclass that keeps its cells
+     * elsewhere creates none, and must then override isWalkable, buildCsrGraph
+     * and every method that reads the NodeModels.
+     * 
+     * @param rows        The number of rows.
+     * @param cols        The number of columns.
+     * @param createNodes False to leave the grid without NodeModels.
+     */
+    protected GridModel(int rows, int cols, boolean createNodes) {
+        this.rows = rows;
+        this.cols = cols;
+        if (!createNodes) {
+            return;
+        }
         nodeModels = new NodeModel[rows][cols];
+        walkable = new boolean[rows * cols];
+        Arrays.fill(walkable, true);
+        overlayCells = new int[16];
+        inOverlay = new boolean[rows * cols];
         initGrid();
         setupNeighbours();
     }
 
+    /**
+     * This function adds a GridChangeListener, told every time a cell becomes a
+     * wall or stops being one.
+     * 
+     * @param toAdd The GridChangeListener to add to the list of listeners.
+     */
+    public void addChangeListener(GridChangeListener toAdd) {
+        changeListeners.add(toAdd);
+    }
+
+    /**
+     * When a cell becomes a wall or stops being one, notify all the listeners.
+     */
+    public void triggerWalkabilityChanged(int index, boolean isWalkable) {
+        for (GridChangeListener changeListener : changeListeners) {
+            changeListener.walkabilityChanged(index, isWalkable);
+        }
+    }
+
     /**
      * For each row and column, create a new NodeModel, add a tag listener to it,
      * and place it in the
@@ -34,7 +90,8 @@ public class GridModel implements NodeTagListener {
         for (int row = 0; row < getRows(); row++) {
             for (int col = 0; col < getCols(); col++) {
                 NodeModel newNodeModel = new NodeModel(new Position(row, col));
-                newNodeModel.addTagListenner(this);
+                newNodeModel.addModelTagListener(this);
+                newNodeModel.addLinkListener(this);
                 placeNode(newNodeModel, row, col);
             }
         }
@@ -66,6 +123,44 @@ public class GridModel implements NodeTagListener {
         }
     }
 
+    /**
+     * It clears the search overlay (the PATH, EXPLORED and QUEUE tags) and the
+     * gCost and hCost of the cells that were tagged since the last call, leaving
+     * the start and end nodes untouched. Only these cells are visited, so the
+     * cost depends on the size of the previous search, not on the size of the
+     * grid.
+     */
+    public void resetSearchData() {
+        int count = overlayCount;
+        overlayCount = 0;
+        for (int i = 0; i < count; i++) {
+            int index = overlayCells[i];
+            inOverlay[index] = false;
+            NodeModel nodeModel = getNodeModel(index);
+            nodeModel.resetTag();
+            if (nodeModel != startNode && nodeModel != endNode) {
+                nodeModel.resetData();
+            }
+        }
+    }
+
+    /**
+     * It remembers that the cell carries a search overlay, so that
+     * resetSearchData can clear it.
+     * 
+     * @param index The index of the cell.
+     */
+    private void recordOverlay(int index) {
+        if (inOverlay[index]) {
+            return;
+        }
+        if (overlayCount == overlayCells.length) {
+            overlayCells = Arrays.copyOf(overlayCells, overlayCount * 2);
+        }
+        overlayCells[overlayCount++] = index;
+        inOverlay[index] = true;
+    }
+
     /**
      * For each node, link it to its neighbours
      */
@@ -80,6 +175,80 @@ public class GridModel implements NodeTagListener {
         }
     }
 
+    /**
+     * Returns the links of the grid as a compressed sparse row graph, custom
+     * links included. The graph is built on the first call and rebuilt only
+     * after a link has changed. It is immutable, so concurrent searches can
+     * share it.
+     * 
+     * @return A CsrGraph object.
+     */
+    public CsrGraph getCsrGraph() {
+        CsrGraph graph = csrGraph;
+        if (graph == null) {
+            synchronized (this) {
+                graph = csrGraph;
+                if (graph == null) {
+                    graph = buildCsrGraph();
+                    csrGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the connected components of the walkable cells. The index is
+     * built on the first call and then follows the walls of the grid.
+     * 
+     * @return A ComponentIndex object.
+     */
+    public ComponentIndex getComponentIndex() {
+        ComponentIndex index = componentIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = componentIndex;
+                if (index == null) {
+                    index = new ComponentIndex(this);
+                    componentIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * It numbers the cells row by row and copies the links of each node into
+     * the offsets, targets and weights arrays, sorted by target so that the
+     * solvers walk memory in order.
+     * 
+     * @return A new CsrGraph object.
+     */
+    protected CsrGraph buildCsrGraph() {
+        int[] offsets = new int[getSize() + 1];
+        for (int index = 0; index < getSize(); index++) {
+            offsets[index + 1] = offsets[index] + getNodeModel(index).getLinkedNodesAndDistance().size();
+        }
+        int[] targets = new int[offsets[getSize()]];
+        int[] weights = new int[offsets[getSize()]];
+        for (int index = 0; index < getSize(); index++) {
+            int edge = offsets[index];
+            for (Map.Entry<NodeModel, Integer> link : getNodeModel(index).getLinkedNodesAndDistance().entrySet()) {
+                int target = getIndex(link.getKey());
+                int weight = link.getValue();
+                int slot = edge++;
+                while (slot > offsets[index] && targets[slot - 1] > target) {
+                    targets[slot] = targets[slot - 1];
+                    weights[slot] = weights[slot - 1];
+                    slot--;
+                }
+                targets[slot] = target;
+                weights[slot] = weight;
+            }
+        }
+        return new CsrGraph(getRows(), getCols(), offsets, targets, weights);
+    }
+
     /**
      * The distance between two nodes is the number of rows between them plus the
      * number of columns
@@ -104,6 +273,24 @@ public class GridModel implements NodeTagListener {
         return distRows * 14 + (distCols - distRows) * 10;
     }
 
+    /**
+     * The same distance as getDistance(NodeModel, NodeModel), computed from the
+     * indexes of the cells.
+     * 
+     * @param indexA The index of the first cell.
+     * @param indexB The index of the second cell.
+     * @return The distance between two cells.
+     */
+    public int getDistance(int indexA, int indexB) {
+        int cols = getCols();
+        int distRows = Math.abs(indexA / cols - indexB / cols);
+        int distCols = Math.abs(indexA % cols - indexB % cols);
+        if (distCols < distRows) {
+            return distCols * 14 + (distRows - distCols) * 10;
+        }
+        return distRows * 14 + (distCols - distRows) * 10;
+    }
+
     /**
      * If the row of node A is the same as the row of node B, or the column of node
      * A is the same as
@@ -201,6 +388,61 @@ public class GridModel implements NodeTagListener {
         return null;
     }
 
+    /**
+     * Get the node model with the given index, the cells being numbered row by
+     * row.
+     *
+     * @param index The index of the node, between 0 and rows * cols - 1.
+     * @return A NodeModel object.
+     */
+    public NodeModel getNodeModel(int index) {
+        return nodeModels[index / getCols()][index % getCols()];
+    }
+
+    /**
+     * Returns the index of the node, the cells being numbered row by row.
+     *
+     * @param nM The node to get the index of.
+     * @return The index of the node, between 0 and rows * cols - 1.
+     */
+    public int getIndex(NodeModel nM) {
+        Position pos = nM.getPosition();
+        return pos.getRow() * getCols() + pos.getCol();
+    }
+
+    /**
+     * Returns the index of the cell at the given row and column, the cells being
+     * numbered row by row.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the cell, between 0 and rows * cols - 1.
+     * @throws NodePositionOutOfModelBounds If the cell is outside of the grid.
+     */
+    public int getIndex(int row, int col) throws NodePositionOutOfModelBounds {
+        validateNodePosition(row, col);
+        return row * getCols() + col;
+    }
+
+    /**
+     * Returns the number of cells in the grid.
+     *
+     * @return The number of rows times the number of columns.
+     */
+    public int getSize() {
+        return getRows() * getCols();
+    }
+
+    /**
+     * Returns true if the cell with the given index is not a wall.
+     *
+     * @param index The index of the cell.
+     * @return A boolean value.
+     */
+    public boolean isWalkable(int index) {
+        return walkable[index];
+    }
+
     /**
      * This function returns the start node of the graph.
      * 
@@ -254,16 +496,16 @@ public class GridModel implements NodeTagListener {
      * @return The number of rows in the table.
      */
     public int getRows() {
-        return nodeModels.length;
+        return rows;
     }
 
     /**
      * Returns the number of columns in the grid.
      * 
-     * @return The number of columns in the nodeModels array.
+     * @return The number of columns in the grid.
      */
     public int getCols() {
-        return nodeModels[0].length;
+        return cols;
     }
 
     /**
@@ -274,13 +516,32 @@ public class GridModel implements NodeTagListener {
      * node that was passed in is the start node, set the start node to null. If the
      * node's tag is
      * EMPTY, and the node that was passed in is the end node, set the end node to
-     * null
+     * null. If the node's tag is a search overlay, remember the node for
+     * resetSearchData. If the node became a wall or stopped being one, the
+     * version of the grid is bumped and the component index and the change
+     * listeners are told.
      * 
      * @param sourceNodeModel The node that was changed.
      */
     @Override
     public void nodeTagChanged(NodeModel sourceNodeModel) {
+        int index = getIndex(sourceNodeModel);
+        if (walkable[index] != sourceNodeModel.isWalkable()) {
+            walkable[index] = sourceNodeModel.isWalkable();
+            version++;
+            ComponentIndex components = componentIndex;
+            if (components != null) {
+                components.walkabilityChanged(index, walkable[index]);
+            }
+            triggerWalkabilityChanged(index, walkable[index]);
+        }
         switch (sourceNodeModel.getTag()) {
+            case PATH:
+            case EXPLORED:
+            case QUEUE:
+                recordOverlay(index);
+                break;
+
             case START:
                 setStartNode(sourceNodeModel);
                 break;
@@ -301,6 +562,46 @@ public class GridModel implements NodeTagListener {
         }
     }
 
+    /**
+     * When a node is linked to or unlinked from another node, the compressed
+     * sparse row graph is dropped, to be rebuilt on the next call to
+     * getCsrGraph, and the version of the grid is bumped.
+     * 
+     * @param sourceNodeModel The node whose links changed.
+     */
+    @Override
+    public void nodeLinksChanged(NodeModel sourceNodeModel) {
+        csrGraph = null;
+        version++;
+    }
+
+    /**
+     * Returns the version of the grid, bumped every time a wall is placed or
+     * removed and every time a link changes, so that a path found on one
+     * version is only reused on the same version. Search overlays and costs do
+     * not change it.
+     * 
+     * @return The version of the grid.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * It sends the data and tag events of every node to the batch, or straight
+     * to the listeners again if the batch is null. The grid itself is still told
+     * about every tag change at once.
+     * 
+     * @param eventBatch The batch to send the events to, or null.
+     */
+    public void setEventBatch(NodeEventBatch eventBatch) {
+        for (NodeModel[] nodeLine : nodeModels) {
+            for (NodeModel nodeModel : nodeLine) {
+                nodeModel.setEventBatch(eventBatch);
+            }
+        }
+    }
+
     /**
      * Reset the tag of each node in the nodeModels array.
      */
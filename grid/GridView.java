@@ -1,102 +1,336 @@
 package grid;
 
+import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.GridLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-import javax.swing.JPanel;
-import javax.swing.event.MouseInputListener;
+import javax.swing.JComponent;
+import javax.swing.event.MouseInputAdapter;
 
-import node.NodeController;
+import custom_listener.NodeDataListener;
+import custom_listener.NodeTagListener;
 import node.NodeModel;
-import node.NodeView;
+import util.NodeTag;
 import util.Position;
 
 /**
- * It's a JPanel that contains a grid of NodeViews
+ * A single component that paints a grid. The tag and the costs of every cell
+ * are kept in compact arrays, filled by the events of the nodes; a changed
+ * cell is drawn again into an image of the whole grid, and only its rectangle
+ * of the component is repainted, so the cost of an update does not depend on
+ * the size of the grid. The labels of the costs are only drawn when the cells
+ * are large enough to read them.
+ * The mouse is mapped to cells by its coordinates: clicking a cell cycles it
+ * through end, start and empty, and moving over cells with shift or control
+ * held places or removes walls, on every grid linked to the view.
  */
-public class GridView extends JPanel {
-    private NodeView[][] nodeViews;
+public class GridView extends JComponent {
+    private static final int VIEW_SIZE = 800;
+    private static final int LABEL_MIN_SIZE = 24;
+    private static final Color GRID_LINE = Color.DARK_GRAY;
+    private static final Color[] TAG_COLORS = new Color[NodeTag.values().length];
+
+    static {
+        TAG_COLORS[NodeTag.EMPTY.ordinal()] = Color.WHITE;
+        TAG_COLORS[NodeTag.START.ordinal()] = new Color(52, 101, 164);
+        TAG_COLORS[NodeTag.END.ordinal()] = Color.RED;
+        TAG_COLORS[NodeTag.WALL.ordinal()] = Color.BLACK;
+        TAG_COLORS[NodeTag.PORTAL.ordinal()] = Color.PINK;
+        TAG_COLORS[NodeTag.PATH.ordinal()] = Color.YELLOW;
+        TAG_COLORS[NodeTag.QUEUE.ordinal()] = new Color(119, 188, 101);
+        TAG_COLORS[NodeTag.EXPLORED.ordinal()] = new Color(200, 200, 200);
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int cellSize;
+    private final byte[] tags;
+    private final int[] gCosts;
+    private final int[] hCosts;
+    private final BufferedImage image;
+    private final Font labelFont;
+    private final List<GridModel> linkedModels = new ArrayList<>(2);
+    private final Object dirtyLock = new Object();
+    private final boolean[] dirty;
+    private int[] dirtyCells = new int[64];
+    private int dirtyCount;
+    private boolean gLabelVisible = true;
+    private boolean hLabelVisible = true;
+    private boolean fLabelVisible = true;
+    private int lastMouseCell = -1;
 
     public GridView(GridModel gM) {
-        setLayout(new GridLayout(gM.getRows(), gM.getCols()));
-        int nodeSize = 800 / gM.getRows();
-
-        nodeViews = new NodeView[gM.getRows()][gM.getCols()];
-        for (int row = 0; row < gM.getRows(); row++) {
-            for (int col = 0; col < gM.getCols(); col++) {
-                NodeController nC = new NodeController(gM.getNodeModel(row, col));
-                NodeView nV = nC.getNodeView();
-                nV.setPreferredSize(new Dimension(nodeSize, nodeSize));
-                nV.setLabelSize(nodeSize);
-                nodeViews[row][col] = nV;
-                this.add(nV);
-            }
+        rows = gM.getRows();
+        cols = gM.getCols();
+        cellSize = Math.max(1, VIEW_SIZE / Math.max(rows, cols));
+        tags = new byte[rows * cols];
+        gCosts = new int[rows * cols];
+        hCosts = new int[rows * cols];
+        dirty = new boolean[rows * cols];
+        image = new BufferedImage(cols * cellSize, rows * cellSize, BufferedImage.TYPE_INT_RGB);
+        labelFont = new Font("Verdana", Font.PLAIN, Math.max(1, cellSize / 4));
+
+        for (int index = 0; index < rows * cols; index++) {
+            NodeModel nodeModel = gM.getNodeModel(index);
+            tags[index] = (byte) nodeModel.getTag().ordinal();
+            gCosts[index] = nodeModel.getGCost();
+            hCosts[index] = nodeModel.getHCost();
+            CellListener cellListener = new CellListener(index);
+            nodeModel.addDataListener(cellListener);
+            nodeModel.addTagListenner(cellListener);
+        }
+        Graphics2D g2 = image.createGraphics();
+        for (int index = 0; index < rows * cols; index++) {
+            drawCell(g2, index);
         }
+        g2.dispose();
+
+        MouseHandler mouseHandler = new MouseHandler();
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+        setPreferredSize(new Dimension(cols * cellSize, rows * cellSize));
+        setOpaque(true);
         setFocusable(false);
     }
 
     /**
-     * "For each nodeView in the nodeViews array, add a mouse listener that will
-     * call the NodeController when the mouse is clicked."
-     * 
-     * @param gM1 The GridModel that the NodeViews will be linked to.
+     * The listener of one cell: it stores the new tag or costs of the cell and
+     * marks it dirty.
      */
-    public void linkNodeViewToModels(GridModel gM1) {
-        for (int row = 0; row < nodeViews.length; row++) {
-            for (int col = 0; col < nodeViews[0].length; col++) {
-                NodeModel nM1 = gM1.getNodeModel(row, col);
-                nodeViews[row][col].addMouseListener(new NodeController(nM1));
+    private class CellListener implements NodeDataListener, NodeTagListener {
+        private final int index;
+
+        CellListener(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void gCostChanged(int gCost, int newFCost) {
+            synchronized (dirtyLock) {
+                gCosts[index] = gCost;
+                markDirty(index);
+            }
+        }
+
+        @Override
+        public void hCostChanged(int hCost, int newFCost) {
+            synchronized (dirtyLock) {
+                hCosts[index] = hCost;
+                markDirty(index);
+            }
+        }
+
+        @Override
+        public void nodeTagChanged(NodeModel sourceNodeModel) {
+            synchronized (dirtyLock) {
+                tags[index] = (byte) sourceNodeModel.getTag().ordinal();
+                markDirty(index);
             }
         }
     }
 
     /**
-     * This function adds a mouse listener to all the node views in the grid.
-     * 
-     * @param toAdd The MouseInputListener to add to the NodeViews.
+     * It remembers the cell, to be drawn into the image before the next paint,
+     * and asks for its rectangle to be repainted. Must hold dirtyLock.
      */
-    public void addMouseListenerToNodeViews(MouseInputListener toAdd) {
-        for (NodeView[] nodeLine : nodeViews) {
-            for (NodeView nodeView : nodeLine) {
-                nodeView.addMouseListener(toAdd);
+    private void markDirty(int index) {
+        if (!dirty[index]) {
+            dirty[index] = true;
+            if (dirtyCount == dirtyCells.length) {
+                dirtyCells = Arrays.copyOf(dirtyCells, dirtyCount * 2);
             }
+            dirtyCells[dirtyCount++] = index;
         }
+        repaint(index % cols * cellSize, index / cols * cellSize, cellSize, cellSize);
     }
 
-    public void toggleLabels() {
-        for (NodeView[] nodeViewLine : nodeViews) {
-            for (NodeView nodeView : nodeViewLine) {
-                nodeView.toggleAllLabels();
+    /**
+     * It draws the dirty cells into the image, then copies the part of the image
+     * inside the clip onto the component.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        synchronized (dirtyLock) {
+            if (dirtyCount > 0) {
+                Graphics2D g2 = image.createGraphics();
+                for (int i = 0; i < dirtyCount; i++) {
+                    dirty[dirtyCells[i]] = false;
+                    drawCell(g2, dirtyCells[i]);
+                }
+                g2.dispose();
+                dirtyCount = 0;
             }
         }
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, image.getWidth(), image.getHeight());
+        }
+        int x1 = Math.max(0, clip.x);
+        int y1 = Math.max(0, clip.y);
+        int x2 = Math.min(image.getWidth(), clip.x + clip.width);
+        int y2 = Math.min(image.getHeight(), clip.y + clip.height);
+        if (x1 < x2 && y1 < y2) {
+            g.drawImage(image, x1, y1, x2, y2, x1, y1, x2, y2, null);
+        }
+    }
+
+    /**
+     * It draws one cell into the image: its color, its border when the cells are
+     * large enough, and the labels of its costs when they can be read.
+     */
+    private void drawCell(Graphics2D g2, int index) {
+        int x = index % cols * cellSize;
+        int y = index / cols * cellSize;
+        g2.setColor(TAG_COLORS[tags[index]]);
+        g2.fillRect(x, y, cellSize, cellSize);
+        if (cellSize >= 4) {
+            g2.setColor(GRID_LINE);
+            g2.drawRect(x, y, cellSize - 1, cellSize - 1);
+        }
+        if (cellSize < LABEL_MIN_SIZE) {
+            return;
+        }
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(labelFont);
+        g2.setColor(Color.BLACK);
+        FontMetrics metrics = g2.getFontMetrics();
+        int gCost = gCosts[index];
+        int hCost = hCosts[index];
+        if (gLabelVisible && gCost != 0) {
+            g2.drawString(String.valueOf(gCost), x + 2, y + metrics.getAscent() + 1);
+        }
+        if (hLabelVisible && hCost != 0) {
+            g2.drawString(String.valueOf(hCost), x + 2, y + (cellSize + metrics.getAscent()) / 2);
+        }
+        if (fLabelVisible && gCost + hCost != 0) {
+            g2.drawString(String.valueOf(gCost + hCost), x + 2, y + cellSize - metrics.getDescent() - 1);
+        }
+    }
+
+    /**
+     * It makes the clicks and wall strokes on this view act on the grid too.
+     *
+     * @param gM The GridModel edited by the mouse.
+     */
+    public void linkToModel(GridModel gM) {
+        linkedModels.add(gM);
+    }
+
+    public void toggleLabels() {
+        gLabelVisible = !gLabelVisible;
+        hLabelVisible = !hLabelVisible;
+        fLabelVisible = !fLabelVisible;
+        redrawAll();
     }
 
     public void toggleFLabels() {
-        for (NodeView[] nodeViewLine : nodeViews) {
-            for (NodeView nodeView : nodeViewLine) {
-                nodeView.toggleFCostLabel();
+        fLabelVisible = !fLabelVisible;
+        redrawAll();
+    }
+
+    private void redrawAll() {
+        synchronized (dirtyLock) {
+            for (int index = 0; index < rows * cols; index++) {
+                if (!dirty[index]) {
+                    dirty[index] = true;
+                    if (dirtyCount == dirtyCells.length) {
+                        dirtyCells = Arrays.copyOf(dirtyCells, Math.max(dirtyCount * 2, rows * cols));
+                    }
+                    dirtyCells[dirtyCount++] = index;
+                }
             }
         }
+        repaint();
     }
 
     /**
-     * This function returns the node view at the given row and column.
-     * 
-     * @param row The row of the node you want to get.
-     * @param col The column of the node you want to get.
-     * @return The nodeView at the given row and column.
+     * Returns the position of the cell under the point, or null if the point is
+     * outside of the grid.
+     *
+     * @param x The x coordinate in the view.
+     * @param y The y coordinate in the view.
+     * @return A Position object, or null.
      */
-    public NodeView getNodeView(int row, int col) {
-        return nodeViews[row][col];
+    public Position getCellAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols * cellSize || y >= rows * cellSize) {
+            return null;
+        }
+        return new Position(y / cellSize, x / cellSize);
     }
 
     /**
-     * This function returns a NodeView object at the given position.
-     * 
-     * @param pos The position of the node you want to get the view of.
-     * @return A NodeView object
+     * The mouse handling of the old cell components, by coordinates: a click
+     * cycles the tag of the cell, and entering a cell with shift or control held
+     * places or removes a wall.
      */
-    public NodeView getNodeView(Position pos) {
-        return getNodeView(pos.getRow(), pos.getCol());
+    private class MouseHandler extends MouseInputAdapter {
+
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            Position position = getCellAt(e.getX(), e.getY());
+            if (position == null) {
+                return;
+            }
+            for (GridModel gM : linkedModels) {
+                NodeModel nodeModel = gM.getNodeModel(position.getRow(), position.getCol());
+                switch (nodeModel.getTag()) {
+                    case EMPTY:
+                        nodeModel.setNodeTag(NodeTag.END);
+                        break;
+
+                    case END:
+                        nodeModel.setNodeTag(NodeTag.START);
+                        break;
+
+                    case START:
+                        nodeModel.setNodeTag(NodeTag.EMPTY);
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+        }
+
+        @Override
+        public void mouseMoved(MouseEvent e) {
+            cellEntered(e);
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            cellEntered(e);
+        }
+
+        @Override
+        public void mouseExited(MouseEvent e) {
+            lastMouseCell = -1;
+        }
+
+        private void cellEntered(MouseEvent e) {
+            Position position = getCellAt(e.getX(), e.getY());
+            int cell = position == null ? -1 : position.getRow() * cols + position.getCol();
+            if (cell == lastMouseCell) {
+                return;
+            }
+            lastMouseCell = cell;
+            if (cell < 0 || !(e.isShiftDown() || e.isControlDown())) {
+                return;
+            }
+            NodeTag tag = e.isShiftDown() ? NodeTag.WALL : NodeTag.EMPTY;
+            for (GridModel gM : linkedModels) {
+                gM.getNodeModel(position.getRow(), position.getCol()).setNodeTag(tag);
+            }
+        }
     }
-}
\ No newline at end of file
+}
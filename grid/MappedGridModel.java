@@ -0,0 +1,161 @@
+package grid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import node.NodeEventBatch;
+import node.NodeModel;
+
+/**
+ * A read-only grid whose cells stay in a GridFile, mapped into memory with
+ * FileChannel.map instead of loaded. It has no NodeModel: the solvers read
+ * the walls straight from the mapped bytes, which live off the heap and are
+ * paged in by the system as the searches touch them, so opening a map takes no
+ * time whatever its size.
+ * The grid never changes, so its version stays 0. Its graph is the uniform
+ * grid, built from its size on the first call to getCsrGraph. The methods that
+ * read or change the NodeModels throw an UnsupportedOperationException.
+ */
+public class MappedGridModel extends GridModel {
+    private final ByteBuffer cells;
+
+    private MappedGridModel(int rows, int cols, ByteBuffer cells) {
+        super(rows, cols, false);
+        this.cells = cells;
+    }
+
+    /**
+     * It maps the file into memory and checks its header. The file can be
+     * closed, or even deleted, once mapped.
+     *
+     * @param path The GridFile to open.
+     * @return A new MappedGridModel object.
+     * @throws IOException If the file cannot be read or is not a valid
+     *                     GridFile.
+     */
+    public static MappedGridModel open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < GridFile.HEADER_SIZE) {
+                throw new IOException("Not a grid file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), Integer.MAX_VALUE));
+            int magic = buffer.getInt(0);
+            int formatVersion = buffer.getInt(4);
+            int rows = buffer.getInt(8);
+            int cols = buffer.getInt(12);
+            if (magic != GridFile.MAGIC) {
+                throw new IOException("Not a grid file: " + path);
+            }
+            if (formatVersion != GridFile.FORMAT_VERSION) {
+                throw new IOException("Unsupported grid file version " + formatVersion + ": " + path);
+            }
+            if (rows <= 0 || cols <= 0 || (long) rows * cols > GridFile.MAX_CELLS
+                    || channel.size() != GridFile.HEADER_SIZE + (long) rows * cols) {
+                throw new IOException("Truncated or corrupt grid file: " + path);
+            }
+            buffer.position(GridFile.HEADER_SIZE);
+            return new MappedGridModel(rows, cols, buffer.slice());
+        }
+    }
+
+    /**
+     * It reads the byte of the cell in the mapped file. Absolute reads do not
+     * move the buffer, so any number of threads can search the grid at once.
+     */
+    @Override
+    public boolean isWalkable(int index) {
+        return cells.get(index) == GridFile.FLOOR;
+    }
+
+    @Override
+    protected CsrGraph buildCsrGraph() {
+        return CsrGraph.createUniformGrid(getRows(), getCols());
+    }
+
+    /**
+     * There is no search overlay to clear on a read-only grid.
+     */
+    @Override
+    public void resetSearchData() {
+    }
+
+    @Override
+    public void initGrid() {
+        throw readOnly();
+    }
+
+    @Override
+    public void resetGrid() {
+        throw readOnly();
+    }
+
+    @Override
+    public void resetGridData() {
+        throw readOnly();
+    }
+
+    @Override
+    public void setupNeighbours() {
+        throw readOnly();
+    }
+
+    @Override
+    public List<NodeModel> getNeighbours(int nodeRow, int nodeCol) {
+        throw readOnly();
+    }
+
+    @Override
+    public NodeModel getNodeModel(int row, int col) {
+        throw readOnly();
+    }
+
+    @Override
+    public NodeModel getNodeModel(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setStartNode(NodeModel newStartNode) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setEndNode(NodeModel newEndNode) {
+        throw readOnly();
+    }
+
+    @Override
+    public void nodeTagChanged(NodeModel sourceNodeModel) {
+        throw readOnly();
+    }
+
+    @Override
+    public void nodeLinksChanged(NodeModel sourceNodeModel) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setEventBatch(NodeEventBatch eventBatch) {
+        throw readOnly();
+    }
+
+    @Override
+    public void resetTags() {
+        throw readOnly();
+    }
+
+    @Override
+    public void placeWall(int row, int col) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A mapped grid is read-only and has no NodeModels");
+    }
+}
@@ -4,11 +4,29 @@ import java.util.ArrayList;
 import java.util.List;
 
 import custom_listener.NodeDataListener;
+import custom_listener.NodeLinkListener;
 import custom_listener.NodeTagListener;
 
+/**
+ * The listeners of a node and the events sent to them. The model listeners of
+ * the tags are always told at once; the data and tag listeners are told at
+ * once too, unless the node sends its events to a NodeEventBatch, in which
+ * case they are told when the batch is flushed.
+ */
 public abstract class NodeDataEventSender {
     private List<NodeDataListener> dataListeners = new ArrayList<>(1);
     private List<NodeTagListener> tagListeners = new ArrayList<>(2);
+    private List<NodeTagListener> modelTagListeners = new ArrayList<>(1);
+    private List<NodeLinkListener> linkListeners = new ArrayList<>(1);
+    private volatile NodeEventBatch eventBatch;
+
+    // The last events recorded in the batch, guarded by the batch
+    int pendingFlags;
+    int pendingGCost;
+    int pendingGFCost;
+    int pendingHCost;
+    int pendingHFCost;
+    NodeModel pendingTagNode;
 
     /**
      * Add a listener to the list of listeners.
@@ -29,30 +47,107 @@ public abstract class NodeDataEventSender {
     }
 
     /**
-     * When the hCost changes, tell all the listeners that the hCost has changed.
+     * This function adds a NodeTagListener that keeps model state, such as the
+     * walls of a grid, and must be told of every tag change at once, even while
+     * the events of the node go to a batch.
+     * 
+     * @param toAdd The NodeTagListener to add to the list of model listeners.
+     */
+    public void addModelTagListener(NodeTagListener toAdd) {
+        modelTagListeners.add(toAdd);
+    }
+
+    /**
+     * It sends the data and tag events of the node to the batch, or straight to
+     * the listeners again if the batch is null. The previous batch should be
+     * flushed first: events still waiting in it are not moved.
+     * 
+     * @param eventBatch The batch to send the events to, or null.
+     */
+    public void setEventBatch(NodeEventBatch eventBatch) {
+        this.eventBatch = eventBatch;
+    }
+
+    public NodeEventBatch getEventBatch() {
+        return eventBatch;
+    }
+
+    /**
+     * This function adds a NodeLinkListener to the list of NodeLinkListeners.
+     * 
+     * @param toAdd The NodeLinkListener to add to the list of listeners.
+     */
+    public void addLinkListener(NodeLinkListener toAdd) {
+        linkListeners.add(toAdd);
+    }
+
+    /**
+     * When the hCost changes, tell all the listeners that the hCost has changed,
+     * now or when the batch is flushed.
      */
     public void triggerHCostChanged(int hCost, int fCost) {
+        NodeEventBatch batch = eventBatch;
+        if (batch != null) {
+            batch.recordHCost(this, hCost, fCost);
+            return;
+        }
+        dispatchHCostChanged(hCost, fCost);
+    }
+
+    void dispatchHCostChanged(int hCost, int fCost) {
         for (NodeDataListener dataListener : dataListeners) {
             dataListener.hCostChanged(hCost, fCost);
         }
     }
 
     /**
-     * When the gCost changes, tell all the listeners that the gCost has changed.
+     * When the gCost changes, tell all the listeners that the gCost has changed,
+     * now or when the batch is flushed.
      */
     public void triggerGCostChanged(int gCost, int fCost) {
+        NodeEventBatch batch = eventBatch;
+        if (batch != null) {
+            batch.recordGCost(this, gCost, fCost);
+            return;
+        }
+        dispatchGCostChanged(gCost, fCost);
+    }
+
+    void dispatchGCostChanged(int gCost, int fCost) {
         for (NodeDataListener dataListener : dataListeners) {
             dataListener.gCostChanged(gCost, fCost);
         }
     }
 
     /**
-     * When a node's tag changes, notify all the listeners that the node's tag has
-     * changed.
+     * When a node's tag changes, notify the model listeners at once and the other
+     * listeners now or when the batch is flushed.
      */
     public void triggerTagChanged(NodeModel nodeModel) {
+        for (NodeTagListener modelTagListener : modelTagListeners) {
+            modelTagListener.nodeTagChanged(nodeModel);
+        }
+        NodeEventBatch batch = eventBatch;
+        if (batch != null) {
+            batch.recordTag(this, nodeModel);
+            return;
+        }
+        dispatchTagChanged(nodeModel);
+    }
+
+    void dispatchTagChanged(NodeModel nodeModel) {
         for (NodeTagListener tagListener : tagListeners) {
             tagListener.nodeTagChanged(nodeModel);
         }
     }
+
+    /**
+     * When a node is linked to or unlinked from another node, notify all the
+     * listeners that the node's links have changed.
+     */
+    public void triggerLinksChanged(NodeModel nodeModel) {
+        for (NodeLinkListener linkListener : linkListeners) {
+            linkListener.nodeLinksChanged(nodeModel);
+        }
+    }
 }
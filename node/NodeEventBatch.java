@@ -0,0 +1,113 @@
+package node;
+
+import java.util.Arrays;
+
+/**
+ * A batch of node events waiting to be delivered. While a node sends its
+ * events to a batch, its data and tag listeners are not told at once: the
+ * node is only marked dirty, with the last costs it reported, and flush tells
+ * each listener about the final state of every dirty node, once. A cell whose
+ * gCost is lowered ten times during a search, or a reset that clears a whole
+ * grid, then costs the views one update per cell and per flush.
+ * Events can be recorded from one thread and flushed from another, typically
+ * by a solver thread and by a timer of the event dispatch thread once per
+ * frame; the listeners are told on the thread that flushes.
+ */
+public class NodeEventBatch {
+    static final int G_COST = 1;
+    static final int H_COST = 2;
+    static final int TAG = 4;
+
+    private final Object flushLock = new Object();
+    private NodeDataEventSender[] dirty = new NodeDataEventSender[64];
+    private int dirtyCount;
+
+    // The state of the dirty nodes, copied by flush before the listeners run
+    private NodeDataEventSender[] senders = new NodeDataEventSender[0];
+    private int[] flags = new int[0];
+    private int[] costs = new int[0];
+    private NodeModel[] tagNodes = new NodeModel[0];
+
+    synchronized void recordGCost(NodeDataEventSender sender, int gCost, int fCost) {
+        mark(sender, G_COST);
+        sender.pendingGCost = gCost;
+        sender.pendingGFCost = fCost;
+    }
+
+    synchronized void recordHCost(NodeDataEventSender sender, int hCost, int fCost) {
+        mark(sender, H_COST);
+        sender.pendingHCost = hCost;
+        sender.pendingHFCost = fCost;
+    }
+
+    synchronized void recordTag(NodeDataEventSender sender, NodeModel nodeModel) {
+        mark(sender, TAG);
+        sender.pendingTagNode = nodeModel;
+    }
+
+    private void mark(NodeDataEventSender sender, int flag) {
+        if (sender.pendingFlags == 0) {
+            if (dirtyCount == dirty.length) {
+                dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+            }
+            dirty[dirtyCount++] = sender;
+        }
+        sender.pendingFlags |= flag;
+    }
+
+    /**
+     * Returns the number of nodes with events waiting.
+     *
+     * @return The number of dirty nodes.
+     */
+    public synchronized int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * It tells the listeners of every dirty node about its last costs and its
+     * tag, then forgets the nodes. Events recorded while the listeners run wait
+     * for the next flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            int count;
+            synchronized (this) {
+                count = dirtyCount;
+                if (senders.length < count) {
+                    senders = new NodeDataEventSender[dirty.length];
+                    flags = new int[dirty.length];
+                    costs = new int[dirty.length * 4];
+                    tagNodes = new NodeModel[dirty.length];
+                }
+                for (int i = 0; i < count; i++) {
+                    NodeDataEventSender sender = dirty[i];
+                    senders[i] = sender;
+                    flags[i] = sender.pendingFlags;
+                    costs[i * 4] = sender.pendingGCost;
+                    costs[i * 4 + 1] = sender.pendingGFCost;
+                    costs[i * 4 + 2] = sender.pendingHCost;
+                    costs[i * 4 + 3] = sender.pendingHFCost;
+                    tagNodes[i] = sender.pendingTagNode;
+                    sender.pendingFlags = 0;
+                    dirty[i] = null;
+                }
+                dirtyCount = 0;
+            }
+            for (int i = 0; i < count; i++) {
+                NodeDataEventSender sender = senders[i];
+                if ((flags[i] & G_COST) != 0) {
+                    sender.dispatchGCostChanged(costs[i * 4], costs[i * 4 + 1]);
+                }
+                if ((flags[i] & H_COST) != 0) {
+                    sender.dispatchHCostChanged(costs[i * 4 + 2], costs[i * 4 + 3]);
+                }
+                if ((flags[i] & TAG) != 0) {
+                    sender.dispatchTagChanged(tagNodes[i]);
+                }
+                senders[i] = null;
+                tagNodes[i] = null;
+            }
+        }
+    }
+}
@@ -50,8 +50,10 @@ public class NodeModel extends NodeDataEventSender {
      */
     public void link(NodeModel target, int distance, boolean bidirectional) {
         linked.put(target, distance);
+        triggerLinksChanged(this);
         if (bidirectional) {
             target.linked.put(this, distance);
+            target.triggerLinksChanged(target);
         }
     }
 
@@ -65,8 +67,10 @@ public class NodeModel extends NodeDataEventSender {
      */
     public void unlink(NodeModel n, boolean bidirectional) {
         linked.remove(n);
+        triggerLinksChanged(this);
         if (bidirectional) {
             n.linked.remove(this);
+            n.triggerLinksChanged(n);
         }
     }
 
@@ -239,6 +243,7 @@ public class NodeModel extends NodeDataEventSender {
         triggerGCostChanged(gCost, getFCost());
         triggerHCostChanged(hCost, getFCost());
         triggerTagChanged(this);
+        triggerLinksChanged(this);
     }
 
     /**
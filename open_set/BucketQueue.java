@@ -0,0 +1,162 @@
+package open_set;
+
+import java.util.Arrays;
+
+/**
+ * A circular bucket queue (Dial's algorithm) of integer ids. There is one
+ * bucket per key, and the buckets only have to cover the spread between the
+ * smallest and the largest key in the queue, which is bounded by the largest
+ * edge cost for Dijkstra (and twice that for A* with a consistent heuristic).
+ * Push, decrease-key and contains are O(1), and poll is O(1) amortized when
+ * the polled keys never decrease. The buckets are grown when a key falls
+ * outside of them.
+ * Ids having the same key are polled last in, first out, which favours the
+ * most recently generated ones; the tie break hint is ignored.
+ */
+public class BucketQueue implements OpenSet {
+    private static final int DEFAULT_BUCKETS = 32;
+    private static final int NONE = -1;
+
+    private int[] heads;
+    private int mask;
+    private int[] next;
+    private int[] previous;
+    private int[] keys;
+    private boolean[] queued;
+    private int cursor;
+    private int maxKey;
+    private int size;
+
+    public BucketQueue(int capacity) {
+        this(capacity, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * @param capacity  The number of ids, ids go from 0 to capacity - 1.
+     * @param keySpread The expected difference between the largest and the
+     *                  smallest key in the queue.
+     */
+    public BucketQueue(int capacity, int keySpread) {
+        heads = new int[Integer.highestOneBit(Math.max(keySpread, 1)) << 1];
+        mask = heads.length - 1;
+        Arrays.fill(heads, NONE);
+        next = new int[capacity];
+        previous = new int[capacity];
+        keys = new int[capacity];
+        queued = new boolean[capacity];
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return queued[id];
+    }
+
+    @Override
+    public void push(int id, int key, int tieBreak) {
+        if (queued[id]) {
+            if (keys[id] == key) {
+                return;
+            }
+            unlink(id);
+        } else {
+            queued[id] = true;
+            size++;
+        }
+        if (size == 1) {
+            cursor = key;
+            maxKey = key;
+        } else {
+            cursor = Math.min(cursor, key);
+            maxKey = Math.max(maxKey, key);
+        }
+        keys[id] = key;
+        if (maxKey - cursor > mask) {
+            grow(maxKey - cursor);
+        }
+        link(id);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("The bucket queue is empty");
+        }
+        while (heads[cursor & mask] == NONE) {
+            cursor++;
+        }
+        int id = heads[cursor & mask];
+        unlink(id);
+        queued[id] = false;
+        size--;
+        return id;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every id from the queue, in O(size + buckets) rather than
+     * O(capacity).
+     */
+    @Override
+    public void clear() {
+        for (int bucket = 0; bucket < heads.length; bucket++) {
+            for (int id = heads[bucket]; id != NONE; id = next[id]) {
+                queued[id] = false;
+            }
+            heads[bucket] = NONE;
+        }
+        size = 0;
+    }
+
+    private void link(int id) {
+        int bucket = keys[id] & mask;
+        int head = heads[bucket];
+        next[id] = head;
+        previous[id] = NONE;
+        if (head != NONE) {
+            previous[head] = id;
+        }
+        heads[bucket] = id;
+    }
+
+    private void unlink(int id) {
+        if (previous[id] == NONE) {
+            heads[keys[id] & mask] = next[id];
+        } else {
+            next[previous[id]] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+    }
+
+    /**
+     * Allocates enough buckets for the given key spread and moves every queued
+     * id to its new bucket.
+     *
+     * @param keySpread The difference between the largest and the smallest key.
+     */
+    private void grow(int keySpread) {
+        int[] oldHeads = heads;
+        int oldMask = mask;
+        heads = new int[Integer.highestOneBit(keySpread) << 1];
+        mask = heads.length - 1;
+        Arrays.fill(heads, NONE);
+        for (int bucket = 0; bucket <= oldMask; bucket++) {
+            int id = oldHeads[bucket];
+            while (id != NONE) {
+                int nextId = next[id];
+                link(id);
+                id = nextId;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package open_set;
+
+/**
+ * An open set that counts the operations done on another one: the ids pushed
+ * for the first time, the pushes that only lowered the key of an id already in
+ * the set, the ids polled, and the largest size reached. It is only put in
+ * front of an open set when statistics are asked for, so the searches that do
+ * not ask pay nothing.
+ */
+public class CountingOpenSet implements OpenSet {
+    private final OpenSet openSet;
+    private int pushes;
+    private int decreaseKeys;
+    private int pops;
+    private int peakSize;
+
+    public CountingOpenSet(OpenSet openSet) {
+        this.openSet = openSet;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return openSet.contains(id);
+    }
+
+    @Override
+    public void push(int id, int key, int tieBreak) {
+        if (openSet.contains(id)) {
+            decreaseKeys++;
+        } else {
+            pushes++;
+        }
+        openSet.push(id, key, tieBreak);
+        peakSize = Math.max(peakSize, openSet.size());
+    }
+
+    @Override
+    public int poll() {
+        pops++;
+        return openSet.poll();
+    }
+
+    @Override
+    public int size() {
+        return openSet.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return openSet.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        openSet.clear();
+    }
+
+    /**
+     * Sets every count back to 0, the peak size included.
+     */
+    public void resetCounts() {
+        pushes = 0;
+        decreaseKeys = 0;
+        pops = 0;
+        peakSize = 0;
+    }
+
+    /**
+     * Returns the number of ids pushed while not in the set.
+     *
+     * @return The number of insertions.
+     */
+    public int getPushes() {
+        return pushes;
+    }
+
+    /**
+     * Returns the number of pushes of an id already in the set.
+     *
+     * @return The number of key updates.
+     */
+    public int getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    public int getPops() {
+        return pops;
+    }
+
+    /**
+     * Returns the largest number of ids the set held since the counts were
+     * reset.
+     *
+     * @return The peak size.
+     */
+    public int getPeakSize() {
+        return peakSize;
+    }
+}
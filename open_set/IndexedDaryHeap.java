@@ -0,0 +1,214 @@
+package open_set;
+
+import java.util.Arrays;
+
+/**
+ * An indexed d-ary min-heap of integer ids (cell indexes). Every id remembers
+ * its slot in the heap, so contains is O(1) and push, decrease-key and poll
+ * are O(log n).
+ * Ids are ordered by key, and ids with the same key by their tie break value.
+ */
+public class IndexedDaryHeap implements OpenSet {
+    private static final int DEFAULT_ARITY = 4;
+    private static final int ABSENT = -1;
+
+    private final int arity;
+    private int[] heap;
+    private int[] slots;
+    private int[] keys;
+    private int[] tieBreaks;
+    private int size;
+
+    public IndexedDaryHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("The arity of the heap must be at least 2");
+        }
+        this.arity = arity;
+        heap = new int[capacity];
+        slots = new int[capacity];
+        keys = new int[capacity];
+        tieBreaks = new int[capacity];
+        Arrays.fill(slots, ABSENT);
+    }
+
+    /**
+     * Returns true if the id is currently in the heap.
+     *
+     * @param id The id to look for.
+     * @return A boolean value.
+     */
+    @Override
+    public boolean contains(int id) {
+        return slots[id] != ABSENT;
+    }
+
+    /**
+     * Adds the id to the heap, or moves it to its new place if it is already in
+     * the heap (decrease-key).
+     *
+     * @param id       The id to add.
+     * @param key      The key of the id, the smallest key is polled first.
+     * @param tieBreak The value used to order ids having the same key.
+     */
+    @Override
+    public void push(int id, int key, int tieBreak) {
+        int slot = slots[id];
+        keys[id] = key;
+        tieBreaks[id] = tieBreak;
+        if (slot == ABSENT) {
+            heap[size] = id;
+            slots[id] = size;
+            siftUp(size++);
+        } else {
+            siftUp(slot);
+            siftDown(slots[id]);
+        }
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.
+     *
+     * @return The id with the smallest key.
+     */
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("The heap is empty");
+        }
+        int top = heap[0];
+        slots[top] = ABSENT;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            slots[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Returns the id with the smallest key, without removing it.
+     *
+     * @return The id with the smallest key.
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("The heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Removes the id from the heap if it is in it.
+     *
+     * @param id The id to remove.
+     */
+    public void remove(int id) {
+        int slot = slots[id];
+        if (slot == ABSENT) {
+            return;
+        }
+        slots[id] = ABSENT;
+        size--;
+        if (slot < size) {
+            int moved = heap[size];
+            heap[slot] = moved;
+            slots[moved] = slot;
+            siftUp(slot);
+            siftDown(slots[moved]);
+        }
+    }
+
+    /**
+     * Returns the key the id was last pushed with.
+     *
+     * @param id The id to get the key of.
+     * @return The key of the id.
+     */
+    public int getKey(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Returns the tie break value the id was last pushed with.
+     *
+     * @param id The id to get the tie break value of.
+     * @return The tie break value of the id.
+     */
+    public int getTieBreak(int id) {
+        return tieBreaks[id];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every id from the heap, in O(size) rather than O(capacity).
+     */
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            slots[heap[slot]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private boolean less(int idA, int idB) {
+        if (keys[idA] != keys[idB]) {
+            return keys[idA] < keys[idB];
+        }
+        return tieBreaks[idA] < tieBreaks[idB];
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / arity;
+            int parent = heap[parentSlot];
+            if (!less(id, parent)) {
+                break;
+            }
+            heap[slot] = parent;
+            slots[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = id;
+        slots[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        while (true) {
+            int firstChild = slot * arity + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + arity, size);
+            int best = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (less(heap[child], heap[best])) {
+                    best = child;
+                }
+            }
+            if (!less(heap[best], id)) {
+                break;
+            }
+            heap[slot] = heap[best];
+            slots[heap[slot]] = slot;
+            slot = best;
+        }
+        heap[slot] = id;
+        slots[id] = slot;
+    }
+}
@@ -0,0 +1,43 @@
+package open_set;
+
+/**
+ * The set of cells a solver still has to expand, ordered by an integer key.
+ * Cells are identified by their index in the grid, so that an implementation
+ * can keep its bookkeeping in flat arrays.
+ */
+public interface OpenSet {
+
+    /**
+     * Returns true if the id is currently in the open set.
+     *
+     * @param id The id to look for.
+     * @return A boolean value.
+     */
+    boolean contains(int id);
+
+    /**
+     * Adds the id to the open set, or updates its key if it is already in it.
+     *
+     * @param id       The id to add.
+     * @param key      The key of the id, the smallest key is polled first.
+     * @param tieBreak A hint used to order ids having the same key, smallest
+     *                 first. Implementations may ignore it.
+     */
+    void push(int id, int key, int tieBreak);
+
+    /**
+     * Removes and returns an id with the smallest key.
+     *
+     * @return The id with the smallest key.
+     */
+    int poll();
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Removes every id from the open set.
+     */
+    void clear();
+}
@@ -0,0 +1,26 @@
+package open_set;
+
+/**
+ * The open set implementations a solver can choose from.
+ */
+public enum OpenSetType {
+    HEAP, BUCKET, RADIX;
+
+    /**
+     * Creates an empty open set of this type.
+     *
+     * @param capacity The number of ids, ids go from 0 to capacity - 1.
+     * @return A new OpenSet object.
+     */
+    public OpenSet create(int capacity) {
+        switch (this) {
+            case BUCKET:
+                return new BucketQueue(capacity);
+            case RADIX:
+                return new RadixHeap(capacity);
+            case HEAP:
+            default:
+                return new IndexedDaryHeap(capacity);
+        }
+    }
+}
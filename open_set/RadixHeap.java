@@ -0,0 +1,137 @@
+package open_set;
+
+import java.util.Arrays;
+
+/**
+ * A monotone radix heap of integer ids. An id with key k is kept in the bucket
+ * given by the highest bit in which k differs from the last polled key, so an
+ * id moves down at most 32 buckets during its whole life and push, poll and
+ * decrease-key are O(1) amortized, without any key comparison on push.
+ * The keys must be non-negative. The keys pushed are never smaller than the
+ * last polled one for Dijkstra and for A* with a consistent heuristic; a
+ * smaller key, which an inconsistent heuristic such as the octile distance on
+ * a grid with custom links gives, is raised to the last polled key, so the id
+ * is polled next, before every larger key, as it would be in a binary heap.
+ * The tie break hint is ignored.
+ */
+public class RadixHeap implements OpenSet {
+    private static final int BUCKETS = Integer.SIZE + 1;
+    private static final int NONE = -1;
+
+    private final int[] heads = new int[BUCKETS];
+    private int[] next;
+    private int[] previous;
+    private int[] keys;
+    private byte[] buckets;
+    private int lastKey;
+    private int size;
+
+    public RadixHeap(int capacity) {
+        Arrays.fill(heads, NONE);
+        next = new int[capacity];
+        previous = new int[capacity];
+        keys = new int[capacity];
+        buckets = new byte[capacity];
+        Arrays.fill(buckets, (byte) NONE);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return buckets[id] != NONE;
+    }
+
+    @Override
+    public void push(int id, int key, int tieBreak) {
+        key = Math.max(key, lastKey);
+        if (buckets[id] != NONE) {
+            unlink(id);
+        } else {
+            size++;
+        }
+        keys[id] = key;
+        link(id, bucketOf(key));
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("The radix heap is empty");
+        }
+        if (heads[0] == NONE) {
+            int bucket = 1;
+            while (heads[bucket] == NONE) {
+                bucket++;
+            }
+            int minKey = Integer.MAX_VALUE;
+            for (int id = heads[bucket]; id != NONE; id = next[id]) {
+                minKey = Math.min(minKey, keys[id]);
+            }
+            lastKey = minKey;
+            int id = heads[bucket];
+            heads[bucket] = NONE;
+            while (id != NONE) {
+                int nextId = next[id];
+                link(id, bucketOf(keys[id]));
+                id = nextId;
+            }
+        }
+        int id = heads[0];
+        unlink(id);
+        buckets[id] = NONE;
+        size--;
+        return id;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every id from the heap and forgets the last polled key, in
+     * O(size) rather than O(capacity).
+     */
+    @Override
+    public void clear() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int id = heads[bucket]; id != NONE; id = next[id]) {
+                buckets[id] = NONE;
+            }
+            heads[bucket] = NONE;
+        }
+        lastKey = 0;
+        size = 0;
+    }
+
+    private int bucketOf(int key) {
+        return key == lastKey ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(key ^ lastKey);
+    }
+
+    private void link(int id, int bucket) {
+        int head = heads[bucket];
+        next[id] = head;
+        previous[id] = NONE;
+        if (head != NONE) {
+            previous[head] = id;
+        }
+        heads[bucket] = id;
+        buckets[id] = (byte) bucket;
+    }
+
+    private void unlink(int id) {
+        int bucket = buckets[id];
+        if (previous[id] == NONE) {
+            heads[bucket] = next[id];
+        } else {
+            next[previous[id]] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+    }
+}
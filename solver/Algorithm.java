@@ -0,0 +1,6 @@
+package solver;
+
+// The search algorithms a PathFinder can run.
+public enum Algorithm {
+    ASTAR, DIJKSTRA, JPS, BIDIRECTIONAL_ASTAR, BIDIRECTIONAL_DIJKSTRA
+}
@@ -0,0 +1,381 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import custom_listener.SearchListener;
+import grid.CsrGraph;
+import grid.GridModel;
+import open_set.OpenSet;
+
+/**
+ * A bidirectional A* or Dijkstra: one frontier grows from the start on the
+ * graph of the grid, the other from the goal on its reverse, and the best path
+ * through a cell reached by both (mu) is kept up to date.
+ * The search stops as soon as mu is proven optimal: for A*, when a frontier
+ * polls a cell whose fCost is at least mu, as every better path would still
+ * have a cell of smaller fCost in that frontier; for Dijkstra, when the keys
+ * polled last by the two frontiers add up to at least mu. A frontier that runs
+ * dry also ends the search, since it has then settled every cell it can reach.
+ * The two frontiers can take turns on the calling thread, or run at the same
+ * time on two threads. In the latter case each frontier publishes its gCosts
+ * in an atomic array stamped with the search generation, for the other to
+ * read. The listener is only called from the calling thread: the backward
+ * frontier queues its calls, which the forward frontier makes between its
+ * steps and once both are over.
+ */
+class BidirectionalSearch {
+    private static final long NO_PATH = ((long) SearchState.INFINITY << 32) | 0xFFFFFFFFL;
+
+    private final Frontier forward;
+    private final Frontier backward;
+    private final AtomicLong best = new AtomicLong();
+    private final QueuedCalls backwardCalls = new QueuedCalls();
+    private volatile boolean stopped;
+    private Heuristic heuristic;
+    private boolean parallel;
+    private GridModel gM;
+    private SearchListener listener;
+
+    BidirectionalSearch(SearchState state, OpenSet open, OpenSet backwardOpen) {
+        forward = new Frontier(state, open);
+        backward = new Frontier(new SearchState(state.getSize()), backwardOpen);
+        forward.other = backward;
+        backward.other = forward;
+    }
+
+    /**
+     * It finds the shortest path between the start and goal cells, which must be
+     * walkable, the forward state and open set having just been reset. The
+     * heuristic is null for Dijkstra.
+     */
+    PathResult find(GridModel gM, int start, int goal, Heuristic heuristic, boolean parallel,
+            SearchListener listener) {
+        this.gM = gM;
+        this.heuristic = heuristic;
+        this.parallel = parallel;
+        this.listener = listener;
+        best.set(NO_PATH);
+        stopped = false;
+        backward.state.reset();
+        backward.open.clear();
+
+        CsrGraph graph = gM.getCsrGraph();
+        forward.start(graph, start, goal, false);
+        backward.start(graph.getReverse(), goal, start, true);
+        if (start == goal) {
+            offer(0, start);
+        }
+
+        if (parallel) {
+            CompletableFuture<Void> backwardRun = CompletableFuture.runAsync(backward::run, ForkJoinPool.commonPool());
+            RuntimeException failure = null;
+            try {
+                forward.run();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            stopped = true;
+            try {
+                backwardRun.join();
+            } catch (CompletionException e) {
+                RuntimeException cause = unwrap(e);
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+            if (failure != null) {
+                backwardCalls.clear();
+                throw failure;
+            }
+            backwardCalls.drainTo(listener);
+        } else {
+            while (!stopped) {
+                Frontier frontier = forward.open.size() <= backward.open.size() ? forward : backward;
+                frontier.step();
+            }
+        }
+
+        int expanded = forward.expanded + backward.expanded;
+        int generated = forward.generated + backward.generated;
+        long bestPath = best.get();
+        if (bestPath == NO_PATH) {
+            return PathResult.notFound(expanded, generated);
+        }
+        return retracePath(start, goal, (int) bestPath, (int) (bestPath >>> 32), expanded, generated);
+    }
+
+    /**
+     * Returns the exception thrown by the backward frontier, as it was thrown.
+     */
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+
+    /**
+     * It records the path of the given cost through the meeting cell if it is
+     * better than the best one so far.
+     */
+    private void offer(int cost, int meeting) {
+        long candidate = ((long) cost << 32) | meeting;
+        long current = best.get();
+        while (cost < (int) (current >>> 32) && !best.compareAndSet(current, candidate)) {
+            current = best.get();
+        }
+    }
+
+    /**
+     * It joins the forward parents from the start to the meeting cell with the
+     * backward parents from the meeting cell to the goal.
+     */
+    private PathResult retracePath(int start, int goal, int meeting, int cost, int expanded, int generated) {
+        int length = 1;
+        for (int cell = meeting; cell != start; cell = forward.state.getParent(cell)) {
+            length++;
+        }
+        for (int cell = meeting; cell != goal; cell = backward.state.getParent(cell)) {
+            length++;
+        }
+        int[] cells = new int[length];
+        int i = 0;
+        for (int cell = meeting; cell != start; cell = forward.state.getParent(cell)) {
+            i++;
+        }
+        for (int cell = meeting, slot = i; slot >= 0; slot--) {
+            cells[slot] = cell;
+            cell = forward.state.getParent(cell);
+        }
+        for (int cell = meeting; cell != goal;) {
+            cell = backward.state.getParent(cell);
+            cells[++i] = cell;
+        }
+        return new PathResult(cost, cells, gM.getCols(), expanded, generated);
+    }
+
+    /**
+     * One of the two searches, with its own state and open set.
+     */
+    private final class Frontier {
+        private final SearchState state;
+        private final OpenSet open;
+        private Frontier other;
+        private AtomicLongArray published;
+        private int generation;
+        private CsrGraph graph;
+        private int target;
+        private boolean reversed;
+        private volatile int lastKey;
+        private int expanded;
+        private int generated;
+
+        private Frontier(SearchState state, OpenSet open) {
+            this.state = state;
+            this.open = open;
+        }
+
+        private void start(CsrGraph graph, int source, int target, boolean reversed) {
+            this.graph = graph;
+            this.target = target;
+            this.reversed = reversed;
+            lastKey = 0;
+            expanded = 0;
+            generated = 1;
+            if (parallel) {
+                if (published == null) {
+                    published = new AtomicLongArray(state.getSize());
+                }
+                generation++;
+                if (generation == 0) {
+                    published = new AtomicLongArray(state.getSize());
+                    generation = 1;
+                }
+            }
+            int hCost = estimate(source);
+            state.setGCost(source, 0, SearchState.NO_PARENT);
+            state.setHCost(source, hCost);
+            publish(source, 0);
+            open.push(source, hCost, hCost);
+        }
+
+        private void run() {
+            while (!stopped && step()) {
+                if (this == forward) {
+                    backwardCalls.drainTo(listener);
+                }
+            }
+        }
+
+        /**
+         * It expands the cell with the smallest key, unless the stopping rule
+         * holds.
+         *
+         * @return False once the search of this frontier is over.
+         */
+        private boolean step() {
+            if (open.isEmpty()) {
+                stopped = true;
+                return false;
+            }
+            int curIndex = open.poll();
+            state.close(curIndex);
+            expanded++;
+            int curGCost = state.getGCost(curIndex);
+            int key = curGCost + state.getHCost(curIndex);
+            lastKey = key;
+            int bestCost = (int) (best.get() >>> 32);
+            if (heuristic != null ? key >= bestCost : (long) key + other.lastKey >= bestCost) {
+                stopped = true;
+                return false;
+            }
+            int otherGCost = other.getGCost(curIndex);
+            if (otherGCost != SearchState.INFINITY) {
+                offer(curGCost + otherGCost, curIndex);
+            }
+            if (listener != null) {
+                if (parallel && this == backward) {
+                    backwardCalls.add(curIndex, 0, 0, QueuedCalls.EXPANDED);
+                } else {
+                    listener.nodeExpanded(curIndex);
+                }
+            }
+
+            int[] offsets = graph.getOffsets();
+            int[] targets = graph.getTargets();
+            int[] weights = graph.getWeights();
+            for (int edge = offsets[curIndex]; edge < offsets[curIndex + 1]; edge++) {
+                int linkedIndex = targets[edge];
+                if (!gM.isWalkable(linkedIndex) || state.isClosed(linkedIndex)) {
+                    continue;
+                }
+
+                int newGCost = curGCost + weights[edge];
+                if (newGCost < state.getGCost(linkedIndex)) {
+                    boolean queued = open.contains(linkedIndex);
+                    int hCost;
+                    if (queued) {
+                        hCost = state.getHCost(linkedIndex);
+                    } else {
+                        hCost = estimate(linkedIndex);
+                        generated++;
+                    }
+                    state.setGCost(linkedIndex, newGCost, curIndex);
+                    state.setHCost(linkedIndex, hCost);
+                    publish(linkedIndex, newGCost);
+                    open.push(linkedIndex, newGCost + hCost, hCost);
+                    if (listener != null) {
+                        if (parallel && this == backward) {
+                            backwardCalls.add(linkedIndex, newGCost, hCost,
+                                    queued ? QueuedCalls.REQUEUED : QueuedCalls.QUEUED);
+                        } else {
+                            listener.nodeQueued(linkedIndex, newGCost, hCost, !queued);
+                        }
+                    }
+                    int linkedOtherGCost = other.getGCost(linkedIndex);
+                    if (linkedOtherGCost != SearchState.INFINITY) {
+                        offer(newGCost + linkedOtherGCost, linkedIndex);
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the heuristic from the cell to the goal for the forward
+         * frontier, and from the start to the cell for the backward one.
+         */
+        private int estimate(int cell) {
+            if (heuristic == null) {
+                return 0;
+            }
+            return reversed ? heuristic.estimate(target, cell) : heuristic.estimate(cell, target);
+        }
+
+        private void publish(int cell, int gCost) {
+            if (parallel) {
+                published.set(cell, ((long) generation << 32) | gCost);
+            }
+        }
+
+        /**
+         * Returns the gCost of the cell in this frontier, as seen from the other
+         * frontier.
+         */
+        private int getGCost(int cell) {
+            if (!parallel) {
+                return state.getGCost(cell);
+            }
+            long entry = published.get(cell);
+            return (int) (entry >>> 32) == generation ? (int) entry : SearchState.INFINITY;
+        }
+    }
+
+    /**
+     * The listener calls of the backward frontier of a parallel search, queued
+     * by its thread for the calling thread to make. Each call takes four ints:
+     * the cell, the gCost, the hCost and the kind of call.
+     */
+    private static final class QueuedCalls {
+        private static final int EXPANDED = 0;
+        private static final int QUEUED = 1;
+        private static final int REQUEUED = 2;
+
+        private int[] calls = new int[256];
+        private int[] draining = new int[256];
+        private volatile int count;
+
+        private synchronized void add(int cell, int gCost, int hCost, int kind) {
+            int size = count;
+            if (size + 4 > calls.length) {
+                calls = Arrays.copyOf(calls, calls.length * 2);
+            }
+            calls[size] = cell;
+            calls[size + 1] = gCost;
+            calls[size + 2] = hCost;
+            calls[size + 3] = kind;
+            count = size + 4;
+        }
+
+        /**
+         * It makes the queued calls on the listener, outside of the lock so
+         * that the backward frontier goes on queuing meanwhile.
+         */
+        private void drainTo(SearchListener listener) {
+            if (count == 0) {
+                return;
+            }
+            int[] batch;
+            int size;
+            synchronized (this) {
+                batch = calls;
+                size = count;
+                calls = draining;
+                draining = batch;
+                count = 0;
+            }
+            for (int i = 0; i < size; i += 4) {
+                if (batch[i + 3] == EXPANDED) {
+                    listener.nodeExpanded(batch[i]);
+                } else {
+                    listener.nodeQueued(batch[i], batch[i + 1], batch[i + 2], batch[i + 3] == QUEUED);
+                }
+            }
+        }
+
+        private synchronized void clear() {
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package solver;
+
+import java.util.Arrays;
+
+import custom_listener.GridChangeListener;
+import grid.CsrGraph;
+import grid.GridModel;
+
+/**
+ * The abstract graph of hierarchical pathfinding (HPA*) over a uniform grid.
+ * The grid is split into square clusters; where two neighbouring clusters
+ * touch, the links crossing their border are grouped into entrances, and each
+ * entrance gets one transition (three for a long one) whose two cells become
+ * abstract nodes. Inside a cluster, the distance between every pair of its
+ * abstract nodes is measured once, by a Dijkstra restricted to the cluster.
+ * An entrance is a maximal group of crossing links whose cells follow each
+ * other on both sides of the border, so diagonal crossings are covered and
+ * every path of the grid has an abstract counterpart.
+ * The graph listens to its grid: a wall placed or removed marks its cluster,
+ * and the next update only rebuilds the borders of the marked clusters and
+ * the clusters around them. A change of the links rebuilds everything.
+ */
+public class ClusterGraph implements GridChangeListener {
+    private static final int EAST = 0;
+    private static final int SOUTH = 1;
+    private static final int SOUTH_EAST = 2;
+    private static final int SOUTH_WEST = 3;
+    private static final int LONG_ENTRANCE = 6;
+    private static final int[] NO_TRANSITIONS = new int[0];
+
+    private final GridModel gM;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+    private final Cluster[] clusters;
+    private final int[][] borders;
+    private final int[] entranceIndex;
+    private final ClusterSearch search;
+    private final Object dirtyLock = new Object();
+    private final boolean[] dirty;
+    private int[] dirtyClusters = new int[16];
+    private int dirtyCount;
+    private CsrGraph graph;
+
+    /**
+     * @param gM          The grid to abstract.
+     * @param clusterSize The number of rows and columns of a cluster.
+     */
+    public ClusterGraph(GridModel gM, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("The size of a cluster must be at least 2");
+        }
+        this.gM = gM;
+        this.clusterSize = clusterSize;
+        clusterRows = (gM.getRows() + clusterSize - 1) / clusterSize;
+        clusterCols = (gM.getCols() + clusterSize - 1) / clusterSize;
+        clusters = new Cluster[clusterRows * clusterCols];
+        for (int cluster = 0; cluster < clusters.length; cluster++) {
+            int row0 = cluster / clusterCols * clusterSize;
+            int col0 = cluster % clusterCols * clusterSize;
+            clusters[cluster] = new Cluster(row0, col0, Math.min(clusterSize, gM.getRows() - row0),
+                    Math.min(clusterSize, gM.getCols() - col0));
+        }
+        borders = new int[clusters.length * 4][];
+        entranceIndex = new int[gM.getSize()];
+        Arrays.fill(entranceIndex, -1);
+        search = new ClusterSearch(gM, clusterSize);
+        dirty = new boolean[clusters.length];
+        gM.addChangeListener(this);
+    }
+
+    /**
+     * It marks the cluster of the cell, to be rebuilt by the next update.
+     */
+    @Override
+    public void walkabilityChanged(int cell, boolean walkable) {
+        int cluster = getCluster(cell);
+        synchronized (dirtyLock) {
+            if (dirty[cluster]) {
+                return;
+            }
+            if (dirtyCount == dirtyClusters.length) {
+                dirtyClusters = Arrays.copyOf(dirtyClusters, dirtyCount * 2);
+            }
+            dirtyClusters[dirtyCount++] = cluster;
+            dirty[cluster] = true;
+        }
+    }
+
+    /**
+     * It brings the abstract graph up to date with the grid: everything is built
+     * if the links changed since the last update, otherwise only the clusters
+     * around the cells whose walkability changed are.
+     *
+     * @param currentGraph The current graph of the grid, which must be uniform.
+     */
+    synchronized void update(CsrGraph currentGraph) {
+        int[] changed;
+        synchronized (dirtyLock) {
+            changed = Arrays.copyOf(dirtyClusters, dirtyCount);
+            for (int cluster : changed) {
+                dirty[cluster] = false;
+            }
+            dirtyCount = 0;
+        }
+        if (currentGraph != graph) {
+            graph = currentGraph;
+            for (int border = 0; border < borders.length; border++) {
+                buildBorder(border / 4, border % 4);
+            }
+            for (int cluster = 0; cluster < clusters.length; cluster++) {
+                buildCluster(cluster);
+            }
+            return;
+        }
+
+        boolean[] affected = new boolean[clusters.length];
+        for (int cluster : changed) {
+            int clusterRow = cluster / clusterCols;
+            int clusterCol = cluster % clusterCols;
+            for (int dir = 0; dir < 4; dir++) {
+                buildBorder(cluster, dir);
+            }
+            buildNeighbourBorder(clusterRow, clusterCol - 1, EAST);
+            buildNeighbourBorder(clusterRow - 1, clusterCol, SOUTH);
+            buildNeighbourBorder(clusterRow - 1, clusterCol - 1, SOUTH_EAST);
+            buildNeighbourBorder(clusterRow - 1, clusterCol + 1, SOUTH_WEST);
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dCol = -1; dCol <= 1; dCol++) {
+                    if (isCluster(clusterRow + dRow, clusterCol + dCol)) {
+                        affected[(clusterRow + dRow) * clusterCols + clusterCol + dCol] = true;
+                    }
+                }
+            }
+        }
+        for (int cluster = 0; cluster < clusters.length; cluster++) {
+            if (affected[cluster]) {
+                buildCluster(cluster);
+            }
+        }
+    }
+
+    private void buildNeighbourBorder(int clusterRow, int clusterCol, int dir) {
+        if (isCluster(clusterRow, clusterCol)) {
+            buildBorder(clusterRow * clusterCols + clusterCol, dir);
+        }
+    }
+
+    private boolean isCluster(int clusterRow, int clusterCol) {
+        return clusterRow >= 0 && clusterRow < clusterRows && clusterCol >= 0 && clusterCol < clusterCols;
+    }
+
+    /**
+     * It finds the transitions between the cluster and its neighbour in the
+     * given direction, stored as pairs of cells, the first one in the cluster.
+     */
+    private void buildBorder(int cluster, int dir) {
+        Cluster a = clusters[cluster];
+        int cols = gM.getCols();
+        int lastRow = a.row0 + a.rows - 1;
+        int lastCol = a.col0 + a.cols - 1;
+        switch (dir) {
+            case EAST:
+                if (lastCol + 1 >= cols) {
+                    borders[cluster * 4 + dir] = NO_TRANSITIONS;
+                } else {
+                    borders[cluster * 4 + dir] = groupTransitions(a.row0 * cols + lastCol, a.rows, cols, 1);
+                }
+                break;
+            case SOUTH:
+                if (lastRow + 1 >= gM.getRows()) {
+                    borders[cluster * 4 + dir] = NO_TRANSITIONS;
+                } else {
+                    borders[cluster * 4 + dir] = groupTransitions(lastRow * cols + a.col0, a.cols, 1, cols);
+                }
+                break;
+            case SOUTH_EAST:
+                borders[cluster * 4 + dir] = findCornerTransition(lastRow, lastCol, 1, 1);
+                break;
+            default:
+                borders[cluster * 4 + dir] = findCornerTransition(lastRow, a.col0, 1, -1);
+                break;
+        }
+    }
+
+    /**
+     * It lists the walkable links crossing the border, the near cells being
+     * nearFirst + i * along and the far cells nearFirst + across + j * along,
+     * with |i - j| at most 1. Links whose near cells and far cells are both
+     * neighbours are grouped into an entrance, and each entrance gives its
+     * middle link, plus its two ends if it is long.
+     */
+    private int[] groupTransitions(int nearFirst, int length, int along, int across) {
+        int[] nears = new int[length * 3];
+        int[] fars = new int[length * 3];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            int near = nearFirst + i * along;
+            if (!gM.isWalkable(near)) {
+                continue;
+            }
+            for (int j = Math.max(i - 1, 0); j <= Math.min(i + 1, length - 1); j++) {
+                int far = nearFirst + across + j * along;
+                if (gM.isWalkable(far)) {
+                    nears[count] = i;
+                    fars[count++] = j;
+                }
+            }
+        }
+
+        int[] groups = new int[count];
+        for (int link = 0; link < count; link++) {
+            groups[link] = link;
+            for (int other = link - 1; other >= 0 && nears[other] >= nears[link] - 1; other--) {
+                if (Math.abs(fars[other] - fars[link]) <= 1) {
+                    union(groups, other, link);
+                }
+            }
+        }
+
+        int[] transitions = new int[count * 2];
+        int transitionCount = 0;
+        int[] members = new int[count];
+        boolean[] done = new boolean[count];
+        for (int link = 0; link < count; link++) {
+            if (done[link]) {
+                continue;
+            }
+            int root = find(groups, link);
+            int size = 0;
+            for (int other = link; other < count; other++) {
+                if (!done[other] && find(groups, other) == root) {
+                    done[other] = true;
+                    members[size++] = other;
+                }
+            }
+            int middle = members[size / 2];
+            transitions[transitionCount++] = nearFirst + nears[middle] * along;
+            transitions[transitionCount++] = nearFirst + across + fars[middle] * along;
+            if (size >= LONG_ENTRANCE) {
+                int firstLink = members[0];
+                int lastLink = members[size - 1];
+                transitions[transitionCount++] = nearFirst + nears[firstLink] * along;
+                transitions[transitionCount++] = nearFirst + across + fars[firstLink] * along;
+                transitions[transitionCount++] = nearFirst + nears[lastLink] * along;
+                transitions[transitionCount++] = nearFirst + across + fars[lastLink] * along;
+            }
+        }
+        return Arrays.copyOf(transitions, transitionCount);
+    }
+
+    private static int find(int[] groups, int link) {
+        while (groups[link] != link) {
+            groups[link] = groups[groups[link]];
+            link = groups[link];
+        }
+        return link;
+    }
+
+    private static void union(int[] groups, int linkA, int linkB) {
+        groups[find(groups, linkA)] = find(groups, linkB);
+    }
+
+    /**
+     * Returns the transition between two clusters touching by a corner, made of
+     * the corner cell and its diagonal neighbour in the other cluster, if both
+     * are walkable.
+     */
+    private int[] findCornerTransition(int row, int col, int dRow, int dCol) {
+        int farRow = row + dRow;
+        int farCol = col + dCol;
+        if (farRow >= gM.getRows() || farCol < 0 || farCol >= gM.getCols()) {
+            return NO_TRANSITIONS;
+        }
+        int near = row * gM.getCols() + col;
+        int far = farRow * gM.getCols() + farCol;
+        if (!gM.isWalkable(near) || !gM.isWalkable(far)) {
+            return NO_TRANSITIONS;
+        }
+        return new int[] { near, far };
+    }
+
+    /**
+     * It gathers the abstract nodes of the cluster from the transitions of its
+     * eight borders, with the cells they lead to in the neighbouring clusters,
+     * and measures the distances between them inside the cluster.
+     */
+    private void buildCluster(int cluster) {
+        Cluster c = clusters[cluster];
+        for (int entrance : c.entrances) {
+            entranceIndex[entrance] = -1;
+        }
+        int clusterRow = cluster / clusterCols;
+        int clusterCol = cluster % clusterCols;
+        int[] entrances = new int[8];
+        int[] crossings = new int[16];
+        int entranceCount = 0;
+        int crossingCount = 0;
+        for (int side = 0; side < 8; side++) {
+            int[] transitions;
+            int nearSide;
+            if (side < 4) {
+                transitions = borders[cluster * 4 + side];
+                nearSide = 0;
+            } else {
+                int dRow = side == 4 ? 0 : -1;
+                int dCol = side == 4 ? -1 : side == 5 ? 0 : side == 6 ? -1 : 1;
+                int dir = side - 4;
+                if (!isCluster(clusterRow + dRow, clusterCol + dCol)) {
+                    continue;
+                }
+                transitions = borders[((clusterRow + dRow) * clusterCols + clusterCol + dCol) * 4 + dir];
+                nearSide = 1;
+            }
+            for (int i = 0; i < transitions.length; i += 2) {
+                int entrance = transitions[i + nearSide];
+                int partner = transitions[i + 1 - nearSide];
+                if (entranceIndex[entrance] < 0) {
+                    if (entranceCount == entrances.length) {
+                        entrances = Arrays.copyOf(entrances, entranceCount * 2);
+                    }
+                    entranceIndex[entrance] = entranceCount;
+                    entrances[entranceCount++] = entrance;
+                }
+                if (crossingCount == crossings.length) {
+                    crossings = Arrays.copyOf(crossings, crossingCount * 2);
+                }
+                crossings[crossingCount++] = entrance;
+                crossings[crossingCount++] = partner;
+            }
+        }
+
+        c.entrances = Arrays.copyOf(entrances, entranceCount);
+        c.partners = new int[entranceCount][];
+        int[] partnerCounts = new int[entranceCount];
+        for (int i = 0; i < crossingCount; i += 2) {
+            partnerCounts[entranceIndex[crossings[i]]]++;
+        }
+        for (int e = 0; e < entranceCount; e++) {
+            c.partners[e] = new int[partnerCounts[e]];
+            partnerCounts[e] = 0;
+        }
+        for (int i = 0; i < crossingCount; i += 2) {
+            int e = entranceIndex[crossings[i]];
+            c.partners[e][partnerCounts[e]++] = crossings[i + 1];
+        }
+
+        c.distances = new int[entranceCount][entranceCount];
+        for (int e = 0; e < entranceCount; e++) {
+            search.run(c.row0, c.col0, c.rows, c.cols, c.entrances[e], -1);
+            for (int other = 0; other < entranceCount; other++) {
+                c.distances[e][other] = search.getDistance(c.entrances[other]);
+            }
+        }
+        search.takeExpanded();
+    }
+
+    /**
+     * Returns the cluster of the cell.
+     *
+     * @param cell The index of the cell.
+     * @return The index of the cluster, numbered row by row.
+     */
+    public int getCluster(int cell) {
+        int cols = gM.getCols();
+        return cell / cols / clusterSize * clusterCols + cell % cols / clusterSize;
+    }
+
+    public int getClusterCount() {
+        return clusters.length;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Returns the number of abstract nodes of the graph.
+     *
+     * @return The number of entrance cells over every cluster.
+     */
+    public synchronized int getEntranceCount() {
+        int count = 0;
+        for (Cluster c : clusters) {
+            count += c.entrances.length;
+        }
+        return count;
+    }
+
+    Cluster getClusterData(int cluster) {
+        return clusters[cluster];
+    }
+
+    /**
+     * Returns the index of the cell among the abstract nodes of its cluster, or
+     * -1 if it is not an abstract node.
+     */
+    int getEntranceIndex(int cell) {
+        return entranceIndex[cell];
+    }
+
+    /**
+     * The bounds of a cluster and its abstract nodes: their cells, the cells
+     * they lead to across the borders, and the distances between them.
+     */
+    static final class Cluster {
+        final int row0;
+        final int col0;
+        final int rows;
+        final int cols;
+        int[] entrances = NO_TRANSITIONS;
+        int[][] partners;
+        int[][] distances;
+
+        private Cluster(int row0, int col0, int rows, int cols) {
+            this.row0 = row0;
+            this.col0 = col0;
+            this.rows = rows;
+            this.cols = cols;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package solver;
+
+import java.util.Arrays;
+
+import grid.GridModel;
+import open_set.IndexedDaryHeap;
+
+/**
+ * Dijkstra restricted to the cells of one cluster of a uniform grid, with
+ * arrays sized for the largest cluster and reused from one search to the next.
+ * It is used by the cluster graph to measure the distances between the
+ * entrances of a cluster, and by the hierarchical path finder to refine an
+ * abstract path into cells.
+ */
+class ClusterSearch {
+    private final GridModel gM;
+    private final int[] gCosts;
+    private final int[] parents;
+    private final IndexedDaryHeap open;
+    private int row0;
+    private int col0;
+    private int rows;
+    private int cols;
+    private int expanded;
+
+    ClusterSearch(GridModel gM, int clusterSize) {
+        this.gM = gM;
+        int capacity = clusterSize * clusterSize;
+        gCosts = new int[capacity];
+        parents = new int[capacity];
+        open = new IndexedDaryHeap(capacity);
+    }
+
+    /**
+     * It runs Dijkstra from the source cell over the walkable cells of the
+     * rectangle, stopping once the target is settled, or once every cell is if
+     * the target is -1.
+     */
+    void run(int row0, int col0, int rows, int cols, int source, int target) {
+        this.row0 = row0;
+        this.col0 = col0;
+        this.rows = rows;
+        this.cols = cols;
+        Arrays.fill(gCosts, 0, rows * cols, SearchState.INFINITY);
+        open.clear();
+        int sourceLocal = toLocal(source);
+        gCosts[sourceLocal] = 0;
+        parents[sourceLocal] = SearchState.NO_PARENT;
+        open.push(sourceLocal, 0, 0);
+        int targetLocal = target < 0 ? SearchState.NO_PARENT : toLocal(target);
+
+        int gridCols = gM.getCols();
+        while (!open.isEmpty()) {
+            int cur = open.poll();
+            expanded++;
+            if (cur == targetLocal) {
+                return;
+            }
+            int row = cur / cols;
+            int col = cur % cols;
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dCol = -1; dCol <= 1; dCol++) {
+                    int nRow = row + dRow;
+                    int nCol = col + dCol;
+                    if ((dRow == 0 && dCol == 0) || nRow < 0 || nRow >= rows || nCol < 0 || nCol >= cols
+                            || !gM.isWalkable((row0 + nRow) * gridCols + col0 + nCol)) {
+                        continue;
+                    }
+                    int next = nRow * cols + nCol;
+                    int newGCost = gCosts[cur] + (dRow != 0 && dCol != 0 ? 14 : 10);
+                    if (newGCost < gCosts[next]) {
+                        gCosts[next] = newGCost;
+                        parents[next] = cur;
+                        open.push(next, newGCost, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the distance from the source of the last run to the cell, or
+     * SearchState.INFINITY if it cannot be reached inside the cluster.
+     */
+    int getDistance(int cell) {
+        return gCosts[toLocal(cell)];
+    }
+
+    /**
+     * It appends the cells of the path from the source of the last run to the
+     * target, the source excluded, to the array from the given slot.
+     *
+     * @return The slot after the last cell written.
+     */
+    int appendPath(int target, int[] cells, int slot) {
+        int length = 0;
+        for (int cur = toLocal(target); parents[cur] != SearchState.NO_PARENT; cur = parents[cur]) {
+            length++;
+        }
+        int gridCols = gM.getCols();
+        int i = slot + length - 1;
+        for (int cur = toLocal(target); parents[cur] != SearchState.NO_PARENT; cur = parents[cur]) {
+            cells[i--] = (row0 + cur / cols) * gridCols + col0 + cur % cols;
+        }
+        return slot + length;
+    }
+
+    /**
+     * Returns the number of cells expanded since the last call, and resets it.
+     */
+    int takeExpanded() {
+        int count = expanded;
+        expanded = 0;
+        return count;
+    }
+
+    private int toLocal(int cell) {
+        int gridCols = gM.getCols();
+        return (cell / gridCols - row0) * cols + cell % gridCols - col0;
+    }
+}
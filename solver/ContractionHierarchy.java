@@ -0,0 +1,514 @@
+package solver;
+
+import java.util.Arrays;
+
+import grid.CsrGraph;
+import grid.GridModel;
+import open_set.IndexedDaryHeap;
+
+/**
+ * A contraction hierarchy of a grid, for maps that do not change once loaded.
+ * The cells are contracted one by one, the least important first; when a cell
+ * is contracted, a shortcut is added between two of its neighbours if the path
+ * through it is the only shortest one, as a bounded witness search tells.
+ * The importance of a cell is its edge difference (the shortcuts its
+ * contraction would add minus the links it removes) plus the number of its
+ * neighbours already contracted and its depth in the hierarchy, which spreads
+ * the contractions evenly over the grid. It is estimated with shorter witness
+ * searches and updated lazily.
+ * The result is stored as two compressed sparse row graphs that only go up the
+ * hierarchy: the links leaving each cell towards a higher cell, and the links
+ * entering each cell from a higher cell. Every link remembers the cell it
+ * shortcuts, or -1 for a link of the grid, so that paths can be unpacked.
+ * The hierarchy is built from the graph of the grid, custom links included, and
+ * from its walls at that time; walls are left out of it. It is immutable and
+ * can be shared by the queries of several threads, each with its own
+ * ContractionHierarchyQuery.
+ */
+public class ContractionHierarchy {
+    private static final int WITNESS_SETTLE_LIMIT = 64;
+    private static final int ESTIMATE_SETTLE_LIMIT = 16;
+    static final int NO_EDGE = -1;
+
+    private final GridModel gM;
+    private final int version;
+    private final int size;
+    private final int[] ranks;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final int[] downWeights;
+    private final int[] downMiddles;
+    private final int shortcutCount;
+
+    // Contraction state, dropped once the hierarchy is built
+    private int[][] outTargets;
+    private int[][] outWeights;
+    private int[][] outMiddles;
+    private int[] outCounts;
+    private int[][] inSources;
+    private int[][] inWeights;
+    private int[][] inMiddles;
+    private int[] inCounts;
+    private boolean[] contracted;
+    private int[] contractedNeighbours;
+    private int[] levels;
+    private int[] witnessCosts;
+    private int[] touched;
+    private int touchedCount;
+    private IndexedDaryHeap witnessOpen;
+    private int witnessLimit;
+    private int addedShortcuts;
+
+    /**
+     * It contracts every walkable cell of the grid.
+     *
+     * @param gM The grid, which should not change afterwards.
+     */
+    public ContractionHierarchy(GridModel gM) {
+        this.gM = gM;
+        this.version = gM.getVersion();
+        CsrGraph graph = gM.getCsrGraph();
+        size = graph.getSize();
+        ranks = new int[size];
+        loadGraph(graph);
+        contractAll();
+
+        int[] counts = new int[2];
+        upOffsets = new int[size + 1];
+        downOffsets = new int[size + 1];
+        for (int cell = 0; cell < size; cell++) {
+            countEdges(cell, counts);
+            upOffsets[cell + 1] = upOffsets[cell] + counts[0];
+            downOffsets[cell + 1] = downOffsets[cell] + counts[1];
+        }
+        upTargets = new int[upOffsets[size]];
+        upWeights = new int[upOffsets[size]];
+        upMiddles = new int[upOffsets[size]];
+        downSources = new int[downOffsets[size]];
+        downWeights = new int[downOffsets[size]];
+        downMiddles = new int[downOffsets[size]];
+        for (int cell = 0; cell < size; cell++) {
+            int up = upOffsets[cell];
+            for (int i = 0; i < outCounts[cell]; i++) {
+                if (ranks[outTargets[cell][i]] > ranks[cell]) {
+                    upTargets[up] = outTargets[cell][i];
+                    upWeights[up] = outWeights[cell][i];
+                    upMiddles[up++] = outMiddles[cell][i];
+                }
+            }
+            int down = downOffsets[cell];
+            for (int i = 0; i < inCounts[cell]; i++) {
+                if (ranks[inSources[cell][i]] > ranks[cell]) {
+                    downSources[down] = inSources[cell][i];
+                    downWeights[down] = inWeights[cell][i];
+                    downMiddles[down++] = inMiddles[cell][i];
+                }
+            }
+        }
+        shortcutCount = addedShortcuts;
+
+        outTargets = null;
+        outWeights = null;
+        outMiddles = null;
+        outCounts = null;
+        inSources = null;
+        inWeights = null;
+        inMiddles = null;
+        inCounts = null;
+        contracted = null;
+        contractedNeighbours = null;
+        witnessCosts = null;
+        touched = null;
+        witnessOpen = null;
+    }
+
+    private void countEdges(int cell, int[] counts) {
+        counts[0] = 0;
+        counts[1] = 0;
+        for (int i = 0; i < outCounts[cell]; i++) {
+            if (ranks[outTargets[cell][i]] > ranks[cell]) {
+                counts[0]++;
+            }
+        }
+        for (int i = 0; i < inCounts[cell]; i++) {
+            if (ranks[inSources[cell][i]] > ranks[cell]) {
+                counts[1]++;
+            }
+        }
+    }
+
+    /**
+     * It copies the links between walkable cells into growable adjacency lists,
+     * in both directions.
+     */
+    private void loadGraph(CsrGraph graph) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        outTargets = new int[size][];
+        outWeights = new int[size][];
+        outMiddles = new int[size][];
+        outCounts = new int[size];
+        inSources = new int[size][];
+        inWeights = new int[size][];
+        inMiddles = new int[size][];
+        inCounts = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            int degree = offsets[cell + 1] - offsets[cell];
+            outTargets[cell] = new int[degree];
+            outWeights[cell] = new int[degree];
+            outMiddles[cell] = new int[degree];
+            inSources[cell] = new int[degree];
+            inWeights[cell] = new int[degree];
+            inMiddles[cell] = new int[degree];
+        }
+        for (int cell = 0; cell < size; cell++) {
+            if (!gM.isWalkable(cell)) {
+                continue;
+            }
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                if (gM.isWalkable(targets[edge]) && targets[edge] != cell) {
+                    addEdge(cell, targets[edge], weights[edge], NO_EDGE);
+                }
+            }
+        }
+    }
+
+    /**
+     * It adds the link, or lowers the weight of the existing link between the
+     * same two cells.
+     *
+     * @return True if the graph changed.
+     */
+    private boolean addEdge(int from, int to, int weight, int middle) {
+        for (int i = 0; i < outCounts[from]; i++) {
+            if (outTargets[from][i] == to) {
+                if (outWeights[from][i] <= weight) {
+                    return false;
+                }
+                outWeights[from][i] = weight;
+                outMiddles[from][i] = middle;
+                for (int j = 0; j < inCounts[to]; j++) {
+                    if (inSources[to][j] == from) {
+                        inWeights[to][j] = weight;
+                        inMiddles[to][j] = middle;
+                    }
+                }
+                return true;
+            }
+        }
+        if (outCounts[from] == outTargets[from].length) {
+            int capacity = Math.max(4, outCounts[from] * 2);
+            outTargets[from] = Arrays.copyOf(outTargets[from], capacity);
+            outWeights[from] = Arrays.copyOf(outWeights[from], capacity);
+            outMiddles[from] = Arrays.copyOf(outMiddles[from], capacity);
+        }
+        outTargets[from][outCounts[from]] = to;
+        outWeights[from][outCounts[from]] = weight;
+        outMiddles[from][outCounts[from]++] = middle;
+        if (inCounts[to] == inSources[to].length) {
+            int capacity = Math.max(4, inCounts[to] * 2);
+            inSources[to] = Arrays.copyOf(inSources[to], capacity);
+            inWeights[to] = Arrays.copyOf(inWeights[to], capacity);
+            inMiddles[to] = Arrays.copyOf(inMiddles[to], capacity);
+        }
+        inSources[to][inCounts[to]] = from;
+        inWeights[to][inCounts[to]] = weight;
+        inMiddles[to][inCounts[to]++] = middle;
+        return true;
+    }
+
+    /**
+     * It contracts the cells in the order of their importance, recomputed when
+     * a cell reaches the top of the queue: if it is no longer the least
+     * important, it goes back in the queue.
+     */
+    private void contractAll() {
+        contracted = new boolean[size];
+        contractedNeighbours = new int[size];
+        levels = new int[size];
+        witnessCosts = new int[size];
+        Arrays.fill(witnessCosts, SearchState.INFINITY);
+        touched = new int[size];
+        witnessOpen = new IndexedDaryHeap(size);
+        IndexedDaryHeap order = new IndexedDaryHeap(size);
+        for (int cell = 0; cell < size; cell++) {
+            order.push(cell, importance(cell), cell);
+        }
+        int rank = 0;
+        while (!order.isEmpty()) {
+            int cell = order.poll();
+            int newImportance = importance(cell);
+            if (!order.isEmpty() && newImportance > order.getKey(order.peek())) {
+                order.push(cell, newImportance, cell);
+                continue;
+            }
+            witnessLimit = WITNESS_SETTLE_LIMIT;
+            contract(cell, true);
+            contracted[cell] = true;
+            ranks[cell] = rank++;
+            for (int i = 0; i < outCounts[cell]; i++) {
+                contractedNeighbours[outTargets[cell][i]]++;
+                levels[outTargets[cell][i]] = Math.max(levels[outTargets[cell][i]], levels[cell] + 1);
+            }
+            for (int i = 0; i < inCounts[cell]; i++) {
+                contractedNeighbours[inSources[cell][i]]++;
+                levels[inSources[cell][i]] = Math.max(levels[inSources[cell][i]], levels[cell] + 1);
+            }
+            detach(cell);
+        }
+    }
+
+    /**
+     * It removes the links of the contracted cell from the lists of its
+     * neighbours, which keeps the witness searches of the next contractions from
+     * walking over them. The cell keeps its own lists: they hold its links to
+     * the higher cells.
+     */
+    private void detach(int cell) {
+        for (int i = 0; i < outCounts[cell]; i++) {
+            int to = outTargets[cell][i];
+            if (!contracted[to]) {
+                int last = --inCounts[to];
+                for (int j = 0; j <= last; j++) {
+                    if (inSources[to][j] == cell) {
+                        inSources[to][j] = inSources[to][last];
+                        inWeights[to][j] = inWeights[to][last];
+                        inMiddles[to][j] = inMiddles[to][last];
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < inCounts[cell]; i++) {
+            int from = inSources[cell][i];
+            if (!contracted[from]) {
+                int last = --outCounts[from];
+                for (int j = 0; j <= last; j++) {
+                    if (outTargets[from][j] == cell) {
+                        outTargets[from][j] = outTargets[from][last];
+                        outWeights[from][j] = outWeights[from][last];
+                        outMiddles[from][j] = outMiddles[from][last];
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private int importance(int cell) {
+        int removed = 0;
+        for (int i = 0; i < outCounts[cell]; i++) {
+            if (!contracted[outTargets[cell][i]]) {
+                removed++;
+            }
+        }
+        for (int i = 0; i < inCounts[cell]; i++) {
+            if (!contracted[inSources[cell][i]]) {
+                removed++;
+            }
+        }
+        witnessLimit = ESTIMATE_SETTLE_LIMIT;
+        int added = contract(cell, false);
+        return added - removed + contractedNeighbours[cell] + levels[cell];
+    }
+
+    /**
+     * It finds the shortcuts the contraction of the cell needs, and adds them if
+     * asked to.
+     *
+     * @return The number of shortcuts needed.
+     */
+    private int contract(int cell, boolean addShortcuts) {
+        int shortcuts = 0;
+        for (int i = 0; i < inCounts[cell]; i++) {
+            int from = inSources[cell][i];
+            if (contracted[from]) {
+                continue;
+            }
+            int inWeight = inWeights[cell][i];
+            int maxCost = 0;
+            for (int j = 0; j < outCounts[cell]; j++) {
+                int to = outTargets[cell][j];
+                if (!contracted[to] && to != from) {
+                    maxCost = Math.max(maxCost, inWeight + outWeights[cell][j]);
+                }
+            }
+            if (maxCost == 0) {
+                continue;
+            }
+            witnessSearch(from, cell, maxCost);
+            for (int j = 0; j < outCounts[cell]; j++) {
+                int to = outTargets[cell][j];
+                if (contracted[to] || to == from) {
+                    continue;
+                }
+                int viaCost = inWeight + outWeights[cell][j];
+                if (witnessCosts[to] > viaCost) {
+                    shortcuts++;
+                    if (addShortcuts && addEdge(from, to, viaCost, cell)) {
+                        addedShortcuts++;
+                    }
+                }
+            }
+            clearWitnessSearch();
+        }
+        return shortcuts;
+    }
+
+    /**
+     * It runs a Dijkstra from the source that avoids the cell being contracted
+     * and the cells already contracted, up to the given cost or a fixed number of
+     * settled cells. A target left with a larger cost gets a shortcut, which is
+     * always safe.
+     */
+    private void witnessSearch(int source, int avoided, int maxCost) {
+        witnessOpen.clear();
+        witnessCosts[source] = 0;
+        touched[touchedCount++] = source;
+        witnessOpen.push(source, 0, 0);
+        int settled = 0;
+        while (!witnessOpen.isEmpty() && settled < witnessLimit) {
+            int cell = witnessOpen.poll();
+            int cost = witnessCosts[cell];
+            if (cost > maxCost) {
+                break;
+            }
+            settled++;
+            for (int i = 0; i < outCounts[cell]; i++) {
+                int next = outTargets[cell][i];
+                if (next == avoided || contracted[next]) {
+                    continue;
+                }
+                int newCost = cost + outWeights[cell][i];
+                if (newCost < witnessCosts[next]) {
+                    if (witnessCosts[next] == SearchState.INFINITY) {
+                        touched[touchedCount++] = next;
+                    }
+                    witnessCosts[next] = newCost;
+                    witnessOpen.push(next, newCost, 0);
+                }
+            }
+        }
+    }
+
+    private void clearWitnessSearch() {
+        for (int i = 0; i < touchedCount; i++) {
+            witnessCosts[touched[i]] = SearchState.INFINITY;
+        }
+        touchedCount = 0;
+    }
+
+    /**
+     * Returns a new query, to be used by one thread at a time.
+     *
+     * @return A ContractionHierarchyQuery object.
+     */
+    public ContractionHierarchyQuery createQuery() {
+        return new ContractionHierarchyQuery(this);
+    }
+
+    /**
+     * Returns true if the hierarchy was built on this grid, and its walls and
+     * links have not changed since.
+     *
+     * @param gM The grid about to be searched.
+     * @return A boolean value.
+     */
+    public boolean isValidFor(GridModel gM) {
+        return gM == this.gM && gM.getVersion() == version;
+    }
+
+    /**
+     * Returns the number of shortcuts added by the contraction.
+     *
+     * @return The number of shortcuts.
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCols() {
+        return gM.getCols();
+    }
+
+    GridModel getGridModel() {
+        return gM;
+    }
+
+    boolean isWalkable(int cell) {
+        return gM.isWalkable(cell);
+    }
+
+    int[] getUpOffsets() {
+        return upOffsets;
+    }
+
+    int[] getUpTargets() {
+        return upTargets;
+    }
+
+    int[] getUpWeights() {
+        return upWeights;
+    }
+
+    int[] getDownOffsets() {
+        return downOffsets;
+    }
+
+    int[] getDownSources() {
+        return downSources;
+    }
+
+    int[] getDownWeights() {
+        return downWeights;
+    }
+
+    int getUpMiddle(int edge) {
+        return upMiddles[edge];
+    }
+
+    int getDownMiddle(int edge) {
+        return downMiddles[edge];
+    }
+
+    /**
+     * Returns the middle cell of the up link from the cell to the target. The
+     * two halves of a shortcut are found this way when it is unpacked: its
+     * middle cell is lower than both its ends, so the link into the middle cell
+     * is one of its down links and the link out of it one of its up links.
+     */
+    int findUpMiddle(int cell, int target) {
+        for (int edge = upOffsets[cell]; edge < upOffsets[cell + 1]; edge++) {
+            if (upTargets[edge] == target) {
+                return upMiddles[edge];
+            }
+        }
+        throw new IllegalStateException("Missing link in the contraction hierarchy");
+    }
+
+    /**
+     * Returns the middle cell of the down link of the cell coming from the
+     * source.
+     */
+    int findDownMiddle(int cell, int source) {
+        for (int edge = downOffsets[cell]; edge < downOffsets[cell + 1]; edge++) {
+            if (downSources[edge] == source) {
+                return downMiddles[edge];
+            }
+        }
+        throw new IllegalStateException("Missing link in the contraction hierarchy");
+    }
+
+    int getRank(int cell) {
+        return ranks[cell];
+    }
+}
@@ -0,0 +1,226 @@
+package solver;
+
+import java.util.Arrays;
+
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.GridModel;
+import open_set.IndexedDaryHeap;
+import util.Position;
+
+/**
+ * A query on a contraction hierarchy: a bidirectional Dijkstra in which the
+ * forward search only follows the up links from the start and the backward
+ * search only the down links into the goal, so both only climb the hierarchy
+ * and settle a few hundred cells even on a large grid. A cell that a higher
+ * cell of the same side reaches more cheaply is not expanded (stall on demand),
+ * and a side stops once its smallest key reaches the cost of the best meeting
+ * so far. The shortcuts of
+ * the path found are then unpacked into cells of the grid.
+ * The links and shortcuts are those of the grid when the hierarchy was built,
+ * so a query refuses to run once a wall or a link of the grid has changed:
+ * the hierarchy must be built again.
+ * A query keeps its scratch arrays between calls, so one query must only be
+ * used by one thread at a time.
+ */
+public class ContractionHierarchyQuery {
+    private final ContractionHierarchy hierarchy;
+    private final SearchState forward;
+    private final SearchState backward;
+    private final int[] forwardEdges;
+    private final int[] backwardEdges;
+    private final IndexedDaryHeap forwardOpen;
+    private final IndexedDaryHeap backwardOpen;
+    private int[] stack = new int[48];
+    private int[] cells = new int[64];
+
+    ContractionHierarchyQuery(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        int size = hierarchy.getSize();
+        forward = new SearchState(size);
+        backward = new SearchState(size);
+        forwardEdges = new int[size];
+        backwardEdges = new int[size];
+        forwardOpen = new IndexedDaryHeap(size);
+        backwardOpen = new IndexedDaryHeap(size);
+    }
+
+    /**
+     * It finds the shortest path between two positions of the grid.
+     *
+     * @param start The position of the start cell.
+     * @param goal  The position of the goal cell.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     * @throws NodePositionOutOfModelBounds If a position is outside of the grid.
+     * @throws IllegalStateException        If the grid changed since the
+     *                                      hierarchy was built.
+     */
+    public PathResult find(Position start, Position goal) throws NodePositionOutOfModelBounds {
+        GridModel gM = hierarchy.getGridModel();
+        return find(gM.getIndex(start.getRow(), start.getCol()), gM.getIndex(goal.getRow(), goal.getCol()));
+    }
+
+    /**
+     * It finds the shortest path between the start and goal cells.
+     *
+     * @param start The index of the start cell.
+     * @param goal  The index of the goal cell.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     * @throws IllegalStateException If the grid changed since the hierarchy was
+     *                               built.
+     */
+    public PathResult find(int start, int goal) {
+        if (!hierarchy.isValidFor(hierarchy.getGridModel())) {
+            throw new IllegalStateException("The grid changed since the contraction hierarchy was built");
+        }
+        forward.reset();
+        backward.reset();
+        forwardOpen.clear();
+        backwardOpen.clear();
+        if (!hierarchy.isWalkable(start) || !hierarchy.isWalkable(goal)) {
+            return PathResult.notFound(0, 0);
+        }
+
+        int[] upOffsets = hierarchy.getUpOffsets();
+        int[] upTargets = hierarchy.getUpTargets();
+        int[] upWeights = hierarchy.getUpWeights();
+        int[] downOffsets = hierarchy.getDownOffsets();
+        int[] downSources = hierarchy.getDownSources();
+        int[] downWeights = hierarchy.getDownWeights();
+        forward.setGCost(start, 0, SearchState.NO_PARENT);
+        forwardOpen.push(start, 0, 0);
+        backward.setGCost(goal, 0, SearchState.NO_PARENT);
+        backwardOpen.push(goal, 0, 0);
+        int best = SearchState.INFINITY;
+        int meeting = SearchState.NO_PARENT;
+        int expanded = 0;
+        int generated = 2;
+
+        while (true) {
+            boolean forwardDone = forwardOpen.isEmpty() || forwardOpen.getKey(forwardOpen.peek()) >= best;
+            boolean backwardDone = backwardOpen.isEmpty() || backwardOpen.getKey(backwardOpen.peek()) >= best;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            boolean stepForward = !forwardDone && (backwardDone
+                    || forwardOpen.getKey(forwardOpen.peek()) <= backwardOpen.getKey(backwardOpen.peek()));
+            SearchState state = stepForward ? forward : backward;
+            SearchState other = stepForward ? backward : forward;
+            IndexedDaryHeap open = stepForward ? forwardOpen : backwardOpen;
+            int[] offsets = stepForward ? upOffsets : downOffsets;
+            int[] targets = stepForward ? upTargets : downSources;
+            int[] weights = stepForward ? upWeights : downWeights;
+            int[] parentEdges = stepForward ? forwardEdges : backwardEdges;
+
+            int cell = open.poll();
+            state.close(cell);
+            int cost = state.getGCost(cell);
+            if (other.isVisited(cell) && other.getGCost(cell) != SearchState.INFINITY
+                    && cost + other.getGCost(cell) < best) {
+                best = cost + other.getGCost(cell);
+                meeting = cell;
+            }
+            if (isStalled(state, cell, cost, stepForward ? downOffsets : upOffsets,
+                    stepForward ? downSources : upTargets, stepForward ? downWeights : upWeights)) {
+                continue;
+            }
+            expanded++;
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                int next = targets[edge];
+                int newCost = cost + weights[edge];
+                if (!state.isClosed(next) && newCost < state.getGCost(next)) {
+                    if (!open.contains(next)) {
+                        generated++;
+                    }
+                    state.setGCost(next, newCost, cell);
+                    parentEdges[next] = edge;
+                    open.push(next, newCost, 0);
+                }
+            }
+        }
+
+        if (meeting == SearchState.NO_PARENT) {
+            return PathResult.notFound(expanded, generated);
+        }
+        return retracePath(start, goal, meeting, best, expanded, generated);
+    }
+
+    /**
+     * Returns true if a higher cell reached by the same side has a link to the
+     * cell that makes it cheaper than the cost it was settled with (stall on
+     * demand): the cell is not on a shortest path climbing the hierarchy, so
+     * its links need not be followed.
+     */
+    private static boolean isStalled(SearchState state, int cell, int cost, int[] offsets, int[] targets,
+            int[] weights) {
+        for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+            int higher = targets[edge];
+            if (state.getGCost(higher) != SearchState.INFINITY && state.getGCost(higher) + weights[edge] < cost) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * It unpacks the up links from the start to the meeting cell, then the down
+     * links from the meeting cell to the goal.
+     */
+    private PathResult retracePath(int start, int goal, int meeting, int cost, int expanded, int generated) {
+        int links = 0;
+        for (int cell = meeting; cell != start; cell = forward.getParent(cell)) {
+            links++;
+        }
+        int[] chain = new int[links];
+        for (int cell = meeting, i = links - 1; cell != start; cell = forward.getParent(cell)) {
+            chain[i--] = cell;
+        }
+
+        cells[0] = start;
+        int length = 1;
+        int from = start;
+        for (int to : chain) {
+            length = unpack(from, to, hierarchy.getUpMiddle(forwardEdges[to]), length);
+            from = to;
+        }
+        for (int cell = meeting; cell != goal; cell = backward.getParent(cell)) {
+            int next = backward.getParent(cell);
+            length = unpack(cell, next, hierarchy.getDownMiddle(backwardEdges[cell]), length);
+        }
+        return new PathResult(cost, Arrays.copyOf(cells, length), hierarchy.getCols(), expanded, generated);
+    }
+
+    /**
+     * It appends the cells of the link, the first cell excluded, splitting each
+     * shortcut at its middle cell until only links of the grid are left.
+     *
+     * @return The number of cells of the path so far.
+     */
+    private int unpack(int from, int to, int middle, int length) {
+        int top = 0;
+        stack[top++] = from;
+        stack[top++] = to;
+        stack[top++] = middle;
+        while (top > 0) {
+            int m = stack[--top];
+            int b = stack[--top];
+            int a = stack[--top];
+            if (m == ContractionHierarchy.NO_EDGE) {
+                if (length == cells.length) {
+                    cells = Arrays.copyOf(cells, length * 2);
+                }
+                cells[length++] = b;
+                continue;
+            }
+            if (top + 6 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = m;
+            stack[top++] = b;
+            stack[top++] = hierarchy.findUpMiddle(m, b);
+            stack[top++] = a;
+            stack[top++] = m;
+            stack[top++] = hierarchy.findDownMiddle(m, a);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,311 @@
+package solver;
+
+import java.util.Arrays;
+
+import custom_listener.GridChangeListener;
+import custom_listener.SearchListener;
+import grid.CsrGraph;
+import grid.GridModel;
+import open_set.IndexedDaryHeap;
+
+/**
+ * An incremental planner running D* Lite on the compressed sparse row graph of
+ * a grid. It searches backward from the goal, so that the gCost of a cell is
+ * its distance to the goal, and keeps its search tree from one query to the
+ * next: when cells become walls or stop being walls, only the cells whose
+ * distance to the goal changed are expanded again, and moving the start only
+ * shifts the keys of the open set (km). The cost of a replan depends on the
+ * size of the change, not on the size of the grid.
+ * The planner listens to its grid and records the changed cells, which may
+ * happen on any thread, and repairs its tree at the start of the next query.
+ * A new goal, or a change of the links, starts a new tree. One planner only
+ * runs one query at a time.
+ */
+public class DStarLite implements GridChangeListener {
+    private static final int INFINITY = SearchState.INFINITY;
+    private static final int NO_CELL = -1;
+
+    private final GridModel gM;
+    private final int[] gCosts;
+    private final int[] rhs;
+    private final IndexedDaryHeap open;
+    private final Object pendingLock = new Object();
+    private int[] pendingCells = new int[16];
+    private int pendingCount;
+    private final boolean[] pending;
+    private CsrGraph graph;
+    private CsrGraph reverse;
+    private int goal = NO_CELL;
+    private int lastStart = NO_CELL;
+    private int start;
+    private int km;
+    private int expanded;
+    private int generated;
+    private SearchListener listener;
+
+    public DStarLite(GridModel gM) {
+        this.gM = gM;
+        gCosts = new int[gM.getSize()];
+        rhs = new int[gM.getSize()];
+        open = new IndexedDaryHeap(gM.getSize());
+        pending = new boolean[gM.getSize()];
+        gM.addChangeListener(this);
+    }
+
+    /**
+     * It records the cell for the next query to repair.
+     */
+    @Override
+    public void walkabilityChanged(int cell, boolean walkable) {
+        synchronized (pendingLock) {
+            if (pending[cell]) {
+                return;
+            }
+            if (pendingCount == pendingCells.length) {
+                pendingCells = Arrays.copyOf(pendingCells, pendingCount * 2);
+            }
+            pendingCells[pendingCount++] = cell;
+            pending[cell] = true;
+        }
+    }
+
+    /**
+     * It finds the shortest path between the start and goal cells, reusing the
+     * search tree of the previous query if it had the same goal.
+     *
+     * @param start    The index of the start cell.
+     * @param goal     The index of the goal cell.
+     * @param listener The listener told about the expanded and queued cells, or
+     *                 null.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     *         Expanded and generated only count the work of this query.
+     */
+    public synchronized PathResult find(int start, int goal, SearchListener listener) {
+        this.listener = listener;
+        expanded = 0;
+        generated = 0;
+        CsrGraph currentGraph = gM.getCsrGraph();
+        if (goal != this.goal || currentGraph != graph) {
+            initialize(currentGraph, start, goal);
+        } else {
+            km += gM.getDistance(lastStart, start);
+            lastStart = start;
+            this.start = start;
+            repairChangedCells();
+        }
+
+        if (!gM.getComponentIndex().isConnected(start, goal)) {
+            return PathResult.notFound(expanded, generated);
+        }
+        computeShortestPath();
+        if (gCosts[start] == INFINITY) {
+            return PathResult.notFound(expanded, generated);
+        }
+        return retracePath();
+    }
+
+    /**
+     * It drops the previous tree and starts a new one from the goal.
+     */
+    private void initialize(CsrGraph currentGraph, int start, int goal) {
+        synchronized (pendingLock) {
+            for (int i = 0; i < pendingCount; i++) {
+                pending[pendingCells[i]] = false;
+            }
+            pendingCount = 0;
+        }
+        graph = currentGraph;
+        reverse = currentGraph.getReverse();
+        this.goal = goal;
+        this.start = start;
+        lastStart = start;
+        km = 0;
+        Arrays.fill(gCosts, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear();
+        rhs[goal] = 0;
+        insert(goal);
+    }
+
+    /**
+     * For each cell whose walkability changed since the last query, the cell and
+     * the cells with a link to it get their rhs recomputed, as the cost of their
+     * links changed.
+     */
+    private void repairChangedCells() {
+        int[] cells;
+        int count;
+        synchronized (pendingLock) {
+            cells = Arrays.copyOf(pendingCells, pendingCount);
+            count = pendingCount;
+            for (int i = 0; i < count; i++) {
+                pending[cells[i]] = false;
+            }
+            pendingCount = 0;
+        }
+        int[] offsets = reverse.getOffsets();
+        int[] targets = reverse.getTargets();
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            updateVertex(cell);
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                updateVertex(targets[edge]);
+            }
+        }
+    }
+
+    /**
+     * It expands cells until the start is locally consistent and no cell of the
+     * open set has a smaller key.
+     */
+    private void computeShortestPath() {
+        int[] offsets = reverse.getOffsets();
+        int[] targets = reverse.getTargets();
+        int[] weights = reverse.getWeights();
+        while (!open.isEmpty()) {
+            int cell = open.peek();
+            int oldKey = open.getKey(cell);
+            int oldTieBreak = open.getTieBreak(cell);
+            int startKey = calculateKey(start);
+            int startTieBreak = Math.min(gCosts[start], rhs[start]);
+            if ((oldKey > startKey || (oldKey == startKey && oldTieBreak >= startTieBreak))
+                    && rhs[start] == gCosts[start]) {
+                break;
+            }
+
+            int newKey = calculateKey(cell);
+            int newTieBreak = Math.min(gCosts[cell], rhs[cell]);
+            if (oldKey < newKey || (oldKey == newKey && oldTieBreak < newTieBreak)) {
+                open.push(cell, newKey, newTieBreak);
+                continue;
+            }
+            expanded++;
+            if (listener != null) {
+                listener.nodeExpanded(cell);
+            }
+            if (gCosts[cell] > rhs[cell]) {
+                gCosts[cell] = rhs[cell];
+                open.remove(cell);
+                boolean cellWalkable = gM.isWalkable(cell);
+                for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                    int predecessor = targets[edge];
+                    if (predecessor != goal && cellWalkable && gM.isWalkable(predecessor)
+                            && weights[edge] + gCosts[cell] < rhs[predecessor]) {
+                        rhs[predecessor] = weights[edge] + gCosts[cell];
+                        updateQueue(predecessor);
+                    }
+                }
+            } else {
+                gCosts[cell] = INFINITY;
+                updateVertex(cell);
+                for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                    updateVertex(targets[edge]);
+                }
+            }
+        }
+    }
+
+    /**
+     * It recomputes the rhs of the cell from its successors, and puts the cell
+     * in the open set if it is locally inconsistent.
+     */
+    private void updateVertex(int cell) {
+        if (cell != goal) {
+            rhs[cell] = bestSuccessorCost(cell);
+        }
+        updateQueue(cell);
+    }
+
+    private void updateQueue(int cell) {
+        if (gCosts[cell] != rhs[cell]) {
+            insert(cell);
+        } else {
+            open.remove(cell);
+        }
+    }
+
+    private void insert(int cell) {
+        boolean queued = open.contains(cell);
+        int tieBreak = Math.min(gCosts[cell], rhs[cell]);
+        open.push(cell, calculateKey(cell), tieBreak);
+        if (!queued) {
+            generated++;
+        }
+        if (listener != null) {
+            listener.nodeQueued(cell, tieBreak, gM.getDistance(start, cell), !queued);
+        }
+    }
+
+    /**
+     * Returns the smallest cost of a path to the goal through one of the
+     * successors of the cell, walls costing infinity.
+     */
+    private int bestSuccessorCost(int cell) {
+        if (!gM.isWalkable(cell)) {
+            return INFINITY;
+        }
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int best = INFINITY;
+        for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+            int successor = targets[edge];
+            if (gCosts[successor] != INFINITY && gM.isWalkable(successor)
+                    && weights[edge] + gCosts[successor] < best) {
+                best = weights[edge] + gCosts[successor];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The first component of the key of a cell; the second one, min(g, rhs), is
+     * the tie break value of the open set.
+     */
+    private int calculateKey(int cell) {
+        int cost = Math.min(gCosts[cell], rhs[cell]);
+        if (cost == INFINITY) {
+            return INFINITY;
+        }
+        return cost + gM.getDistance(start, cell) + km;
+    }
+
+    /**
+     * It walks from the start to the goal, each time to the successor that
+     * minimises the cost of the link plus its distance to the goal.
+     */
+    private PathResult retracePath() {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int[] cells = new int[16];
+        int length = 0;
+        int cost = 0;
+        int cell = start;
+        cells[length++] = cell;
+        while (cell != goal) {
+            int next = NO_CELL;
+            int nextWeight = 0;
+            int best = INFINITY;
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                int successor = targets[edge];
+                if (gCosts[successor] != INFINITY && gM.isWalkable(successor)
+                        && weights[edge] + gCosts[successor] < best) {
+                    best = weights[edge] + gCosts[successor];
+                    next = successor;
+                    nextWeight = weights[edge];
+                }
+            }
+            if (next == NO_CELL || length == gCosts.length) {
+                return PathResult.notFound(expanded, generated);
+            }
+            if (length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = next;
+            cost += nextWeight;
+            cell = next;
+        }
+        return new PathResult(cost, Arrays.copyOf(cells, length), gM.getCols(), expanded, generated);
+    }
+}
@@ -0,0 +1,285 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import grid.CsrGraph;
+import grid.GridModel;
+
+/**
+ * Single source shortest paths computed in parallel by delta-stepping, for the
+ * distance fields of large grids. The cells are put in buckets of width delta
+ * by their tentative distance, and all the cells of the lowest bucket are
+ * relaxed at once, split between the threads of a ForkJoinPool, until the
+ * bucket stays empty; then the next bucket is processed. Distances are lowered
+ * with compare-and-set, so two threads may relax the same cell, and a cell may
+ * sit in a bucket it has since left: such a stale entry is skipped.
+ * Every slice of the bucket has its own buckets for the cells it reaches, so
+ * the threads never share a list; they are gathered before each round. A cell
+ * reached from the current bucket lands at most the heaviest link away, so
+ * each slice only keeps a circular window of that many buckets, whatever the
+ * distances of the grid.
+ * The distances are the same as the ones of ShortestPathTree. A delta of a few
+ * diagonal steps suits the 10/14 weights of the grid: a smaller one makes many
+ * short rounds, a larger one relaxes cells again and again.
+ */
+public class DeltaStepping {
+    // Four diagonal steps
+    public static final int DEFAULT_DELTA = 56;
+
+    // A round only splits its cells between several threads from this size on
+    private static final int MIN_SLICE = 512;
+
+    private final ForkJoinPool pool;
+    private final int delta;
+
+    public DeltaStepping() {
+        this(ForkJoinPool.commonPool(), DEFAULT_DELTA);
+    }
+
+    /**
+     * @param pool  The pool the rounds run on.
+     * @param delta The width of a bucket, in the cost unit of the grid.
+     */
+    public DeltaStepping(ForkJoinPool pool, int delta) {
+        if (delta < 1) {
+            throw new IllegalArgumentException("The bucket width must be positive");
+        }
+        this.pool = pool;
+        this.delta = delta;
+    }
+
+    /**
+     * It computes the distances from the source along the links of the graph.
+     * Nothing is shared between two calls.
+     *
+     * @param gM     The grid, for its walls.
+     * @param graph  The graph of the grid, or its reverse for the distances to
+     *               the source.
+     * @param source The index of the source cell.
+     * @return The distance of each cell, indexed by cell, SearchState.INFINITY
+     *         for the cells that cannot be reached.
+     */
+    public int[] distances(GridModel gM, CsrGraph graph, int source) {
+        int size = graph.getSize();
+        AtomicIntegerArray distances = new AtomicIntegerArray(size);
+        for (int cell = 0; cell < size; cell++) {
+            distances.set(cell, SearchState.INFINITY);
+        }
+        if (gM.isWalkable(source)) {
+            distances.set(source, 0);
+            new Search(gM, graph, distances).run(source);
+        }
+        int[] result = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            result[cell] = distances.get(cell);
+        }
+        return result;
+    }
+
+    /**
+     * The state of one call: the distances, the current bucket and the buckets
+     * of each slice.
+     */
+    private class Search {
+        private final GridModel gM;
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] weights;
+        private final AtomicIntegerArray distances;
+        private final Buckets[] slices;
+        private int[] frontier = new int[64];
+        private int frontierSize;
+        private int bucket;
+
+        Search(GridModel gM, CsrGraph graph, AtomicIntegerArray distances) {
+            this.gM = gM;
+            this.offsets = graph.getOffsets();
+            this.targets = graph.getTargets();
+            this.weights = graph.getWeights();
+            this.distances = distances;
+            int maxWeight = 0;
+            for (int weight : weights) {
+                maxWeight = Math.max(maxWeight, weight);
+            }
+            // The current bucket, and the ones up to the heaviest link after it
+            int window = maxWeight / delta + 2;
+            slices = new Buckets[Math.max(1, pool.getParallelism())];
+            for (int i = 0; i < slices.length; i++) {
+                slices[i] = new Buckets(window);
+            }
+        }
+
+        void run(int source) {
+            frontier[0] = source;
+            frontierSize = 1;
+            bucket = 0;
+            while (frontierSize > 0) {
+                int sliceCount = Math.min(slices.length, (frontierSize + MIN_SLICE - 1) / MIN_SLICE);
+                if (sliceCount <= 1) {
+                    relax(0, frontierSize, slices[0]);
+                } else {
+                    pool.invoke(new Round(sliceCount));
+                }
+                gatherNextFrontier();
+            }
+        }
+
+        /**
+         * It relaxes the links of the frontier cells in the range, the reached
+         * cells going to the buckets of the slice.
+         */
+        void relax(int from, int to, Buckets buckets) {
+            int bucketStart = bucket * delta;
+            for (int i = from; i < to; i++) {
+                int cell = frontier[i];
+                int distance = distances.get(cell);
+                if (distance < bucketStart) {
+                    // Settled in an earlier bucket, this entry is stale
+                    continue;
+                }
+                for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                    int target = targets[edge];
+                    if (!gM.isWalkable(target)) {
+                        continue;
+                    }
+                    int newDistance = distance + weights[edge];
+                    int oldDistance = distances.get(target);
+                    while (newDistance < oldDistance) {
+                        if (distances.compareAndSet(target, oldDistance, newDistance)) {
+                            buckets.add(newDistance / delta, target);
+                            break;
+                        }
+                        oldDistance = distances.get(target);
+                    }
+                }
+            }
+        }
+
+        /**
+         * It moves to the lowest bucket that is not empty in any slice, the
+         * current one first, and gathers its cells into the frontier.
+         */
+        private void gatherNextFrontier() {
+            int next = Integer.MAX_VALUE;
+            for (Buckets buckets : slices) {
+                next = Math.min(next, buckets.lowest(bucket));
+            }
+            frontierSize = 0;
+            if (next == Integer.MAX_VALUE) {
+                return;
+            }
+            bucket = next;
+            int total = 0;
+            for (Buckets buckets : slices) {
+                total += buckets.size(bucket);
+            }
+            if (total > frontier.length) {
+                frontier = new int[Math.max(total, frontier.length * 2)];
+            }
+            for (Buckets buckets : slices) {
+                frontierSize = buckets.drain(bucket, frontier, frontierSize);
+            }
+        }
+
+        /**
+         * One round: the frontier is cut into slices relaxed in parallel.
+         */
+        private class Round extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int sliceCount;
+
+            Round(int sliceCount) {
+                this.sliceCount = sliceCount;
+            }
+
+            @Override
+            protected void compute() {
+                RecursiveAction[] tasks = new RecursiveAction[sliceCount];
+                for (int i = 0; i < sliceCount; i++) {
+                    int from = (int) ((long) frontierSize * i / sliceCount);
+                    int to = (int) ((long) frontierSize * (i + 1) / sliceCount);
+                    Buckets buckets = slices[i];
+                    tasks[i] = new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            relax(from, to, buckets);
+                        }
+                    };
+                }
+                ForkJoinTask.invokeAll(tasks);
+            }
+        }
+    }
+
+    /**
+     * The buckets filled by one slice, each a growable list of cells, kept in a
+     * circular window: bucket b is in the slot b modulo the window, which must
+     * be larger than the range of the buckets that hold cells at any time. A
+     * bucket is emptied when it becomes the current one, its list kept for the
+     * bucket that takes its slot next.
+     */
+    private static class Buckets {
+        private final int[][] cells;
+        private final int[] counts;
+        private int lowest = Integer.MAX_VALUE;
+
+        Buckets(int window) {
+            cells = new int[window][];
+            counts = new int[window];
+        }
+
+        void add(int bucket, int cell) {
+            int slot = bucket % cells.length;
+            if (cells[slot] == null) {
+                cells[slot] = new int[16];
+            } else if (counts[slot] == cells[slot].length) {
+                cells[slot] = Arrays.copyOf(cells[slot], counts[slot] * 2);
+            }
+            cells[slot][counts[slot]++] = cell;
+            lowest = Math.min(lowest, bucket);
+        }
+
+        /**
+         * Returns the lowest bucket from the given one on holding cells, or
+         * Integer.MAX_VALUE if there is none.
+         */
+        int lowest(int from) {
+            if (lowest == Integer.MAX_VALUE) {
+                return lowest;
+            }
+            for (int bucket = Math.max(lowest, from); bucket < from + cells.length; bucket++) {
+                if (counts[bucket % cells.length] != 0) {
+                    lowest = bucket;
+                    return bucket;
+                }
+            }
+            lowest = Integer.MAX_VALUE;
+            return lowest;
+        }
+
+        int size(int bucket) {
+            return counts[bucket % cells.length];
+        }
+
+        /**
+         * It copies the cells of the bucket into the frontier and empties it.
+         *
+         * @return The new size of the frontier.
+         */
+        int drain(int bucket, int[] frontier, int frontierSize) {
+            int slot = bucket % cells.length;
+            int count = counts[slot];
+            if (count == 0) {
+                return frontierSize;
+            }
+            System.arraycopy(cells[slot], 0, frontier, frontierSize, count);
+            counts[slot] = 0;
+            return frontierSize + count;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package solver;
+
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.CsrGraph;
+import grid.GridModel;
+import util.Position;
+
+/**
+ * The distance from every cell of a grid to one goal, and the next step
+ * towards it, for the many agents heading to the same goal. Both fields come
+ * from a single Dijkstra run backward from the goal; an agent then reads its
+ * next cell in O(1) instead of searching a path of its own.
+ * The distances are stored as unsigned 16 bit values when the grid is small
+ * enough and as ints otherwise, and the next step of a cell as the slot of the
+ * link to follow among the links of the cell, in one byte, so that custom
+ * links are followed too.
+ * The fields are computed again on the first read after the walls or links of
+ * the grid change. Reads may come from several threads.
+ */
+public class FlowField {
+    public static final int NO_DIRECTION = -1;
+
+    private static final int COMPACT_UNREACHABLE = Character.MAX_VALUE;
+    private static final int NO_SLOT = 0xFF;
+
+    private final GridModel gM;
+    private int goal;
+    private volatile Fields fields;
+
+    /**
+     * A computed pair of fields, with the grid version and graph it is valid
+     * for.
+     */
+    private static class Fields {
+        final int version;
+        final CsrGraph graph;
+        final char[] compactDistances;
+        final int[] distances;
+        final byte[] slots;
+
+        Fields(int version, CsrGraph graph, char[] compactDistances, int[] distances, byte[] slots) {
+            this.version = version;
+            this.graph = graph;
+            this.compactDistances = compactDistances;
+            this.distances = distances;
+            this.slots = slots;
+        }
+    }
+
+    public FlowField(GridModel gM, int goal) {
+        this.gM = gM;
+        this.goal = goal;
+    }
+
+    public FlowField(GridModel gM, Position goal) throws NodePositionOutOfModelBounds {
+        this(gM, gM.getIndex(goal.getRow(), goal.getCol()));
+    }
+
+    public synchronized int getGoal() {
+        return goal;
+    }
+
+    /**
+     * It moves the goal; the fields are computed again on the next read.
+     *
+     * @param goal The index of the new goal cell.
+     */
+    public synchronized void setGoal(int goal) {
+        if (goal != this.goal) {
+            this.goal = goal;
+            fields = null;
+        }
+    }
+
+    /**
+     * Returns the cost of the shortest path from the cell to the goal.
+     *
+     * @param cell The index of the cell.
+     * @return The cost, or SearchState.INFINITY if the goal cannot be reached.
+     */
+    public int getDistance(int cell) {
+        Fields current = current();
+        if (current.compactDistances != null) {
+            int distance = current.compactDistances[cell];
+            return distance == COMPACT_UNREACHABLE ? SearchState.INFINITY : distance;
+        }
+        return current.distances[cell];
+    }
+
+    /**
+     * Returns the slot of the link to follow from the cell, among the links of
+     * the cell in the graph of the grid.
+     *
+     * @param cell The index of the cell.
+     * @return The slot, or NO_DIRECTION at the goal and on the cells that
+     *         cannot reach it.
+     */
+    public int getDirection(int cell) {
+        int slot = current().slots[cell] & 0xFF;
+        return slot == NO_SLOT ? NO_DIRECTION : slot;
+    }
+
+    /**
+     * Returns the next cell of a shortest path from the cell to the goal.
+     *
+     * @param cell The index of the cell.
+     * @return The index of the next cell, or -1 at the goal and on the cells
+     *         that cannot reach it.
+     */
+    public int getNextCell(int cell) {
+        Fields current = current();
+        int slot = current.slots[cell] & 0xFF;
+        if (slot == NO_SLOT) {
+            return -1;
+        }
+        return current.graph.getTargets()[current.graph.getOffsets()[cell] + slot];
+    }
+
+    /**
+     * Returns the next position of a shortest path from the position to the
+     * goal.
+     *
+     * @param position The position of the agent.
+     * @return The next position, or null at the goal and on the cells that
+     *         cannot reach it.
+     * @throws NodePositionOutOfModelBounds If the position is outside of the
+     *                                      grid.
+     */
+    public Position getNextPosition(Position position) throws NodePositionOutOfModelBounds {
+        int next = getNextCell(gM.getIndex(position.getRow(), position.getCol()));
+        if (next < 0) {
+            return null;
+        }
+        return new Position(next / gM.getCols(), next % gM.getCols());
+    }
+
+    /**
+     * Returns the fields, computing them first if the grid has changed since
+     * they were last computed.
+     */
+    private Fields current() {
+        Fields current = fields;
+        if (current != null && current.version == gM.getVersion()) {
+            return current;
+        }
+        synchronized (this) {
+            current = fields;
+            if (current == null || current.version != gM.getVersion()) {
+                current = compute();
+                fields = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * It runs Dijkstra from the goal on the reverse graph, then picks for every
+     * reached cell a link whose target is exactly its weight closer to the
+     * goal. The version is read before the graph, so that a change made during
+     * the computation makes the next read compute the fields again.
+     */
+    private Fields compute() {
+        int version = gM.getVersion();
+        CsrGraph graph = gM.getCsrGraph();
+        int[] distances = ShortestPathTree.distances(gM, graph.getReverse(), goal);
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int size = graph.getSize();
+
+        byte[] slots = new byte[size];
+        int maxDistance = 0;
+        for (int cell = 0; cell < size; cell++) {
+            slots[cell] = (byte) NO_SLOT;
+            int distance = distances[cell];
+            if (distance == SearchState.INFINITY) {
+                continue;
+            }
+            maxDistance = Math.max(maxDistance, distance);
+            if (cell == goal) {
+                continue;
+            }
+            int degree = Math.min(offsets[cell + 1] - offsets[cell], NO_SLOT);
+            for (int slot = 0; slot < degree; slot++) {
+                int edge = offsets[cell] + slot;
+                int target = targets[edge];
+                if (distances[target] != SearchState.INFINITY && distances[target] + weights[edge] == distance) {
+                    slots[cell] = (byte) slot;
+                    break;
+                }
+            }
+        }
+
+        if (maxDistance < COMPACT_UNREACHABLE) {
+            char[] compactDistances = new char[size];
+            for (int cell = 0; cell < size; cell++) {
+                int distance = distances[cell];
+                compactDistances[cell] = (char) (distance == SearchState.INFINITY ? COMPACT_UNREACHABLE : distance);
+            }
+            return new Fields(version, graph, compactDistances, null, slots);
+        }
+        return new Fields(version, graph, null, distances, slots);
+    }
+}
@@ -0,0 +1,36 @@
+package solver;
+
+import grid.GridModel;
+
+/**
+ * A lower bound on the cost of a path between two cells, used by A* to order
+ * its open set. It must never overestimate the cost, and should be consistent
+ * (h(a) <= cost(a, b) + h(b) for every link a to b) for the closed set of A* to
+ * stay valid. When none is given, the searches use the octile distance of the
+ * grid.
+ */
+public interface Heuristic {
+
+    /**
+     * Returns a lower bound on the cost of the shortest path from the cell to
+     * the goal.
+     *
+     * @param cell The index of the cell.
+     * @param goal The index of the goal cell.
+     * @return The estimated cost.
+     */
+    int estimate(int cell, int goal);
+
+    /**
+     * Returns true if the heuristic is still a lower bound on the given grid.
+     * A heuristic computed from a snapshot of a grid is no longer valid once
+     * its walls or links have changed, and the searches then fall back to the
+     * octile distance.
+     *
+     * @param gM The grid about to be searched.
+     * @return A boolean value.
+     */
+    default boolean isValidFor(GridModel gM) {
+        return true;
+    }
+}
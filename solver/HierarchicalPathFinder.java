@@ -0,0 +1,222 @@
+package solver;
+
+import java.util.Arrays;
+
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.CsrGraph;
+import grid.GridModel;
+import open_set.IndexedDaryHeap;
+import open_set.OpenSetType;
+import util.Position;
+
+/**
+ * Hierarchical pathfinding (HPA*) on one grid. A query first measures, inside
+ * their clusters, the distances from the start and to the goal to the
+ * abstract nodes of the cluster graph, then runs A* on the abstract graph,
+ * and finally refines each abstract edge into cells with a search restricted
+ * to one cluster. On a large grid this expands a few hundred abstract nodes
+ * instead of most of the cells between the start and the goal; in exchange
+ * the paths are near-optimal, usually within a few percent of the shortest.
+ * The cluster graph is kept up to date with the walls of the grid. When
+ * custom links make the graph of the grid irregular, the query runs a plain A*
+ * instead. One finder only runs one query at a time.
+ */
+public class HierarchicalPathFinder {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    private final GridModel gM;
+    private final ClusterGraph clusterGraph;
+    private final ClusterSearch search;
+    private final SearchState state;
+    private final IndexedDaryHeap open;
+    private final int[] startDistances;
+    private final int[] goalDistances;
+    private SearchEngine fallback;
+    private int generated;
+
+    public HierarchicalPathFinder(GridModel gM) {
+        this(gM, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathFinder(GridModel gM, int clusterSize) {
+        this.gM = gM;
+        clusterGraph = new ClusterGraph(gM, clusterSize);
+        search = new ClusterSearch(gM, clusterSize);
+        state = new SearchState(gM.getSize());
+        open = new IndexedDaryHeap(gM.getSize());
+        startDistances = new int[clusterSize * 4];
+        goalDistances = new int[clusterSize * 4];
+    }
+
+    public ClusterGraph getClusterGraph() {
+        return clusterGraph;
+    }
+
+    /**
+     * It finds a path between two positions of the grid.
+     *
+     * @param start The position of the start cell.
+     * @param goal  The position of the goal cell.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     * @throws NodePositionOutOfModelBounds If a position is outside of the grid.
+     */
+    public PathResult find(Position start, Position goal) throws NodePositionOutOfModelBounds {
+        return find(gM.getIndex(start.getRow(), start.getCol()), gM.getIndex(goal.getRow(), goal.getCol()));
+    }
+
+    /**
+     * It finds a path between two cells of the grid.
+     *
+     * @param start The index of the start cell.
+     * @param goal  The index of the goal cell.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     *         Expanded counts the abstract nodes and the cells expanded by the
+     *         searches inside the clusters.
+     */
+    public synchronized PathResult find(int start, int goal) {
+        if (!gM.getComponentIndex().isConnected(start, goal)) {
+            return PathResult.notFound(0, 0);
+        }
+        CsrGraph graph = gM.getCsrGraph();
+        if (!graph.isUniformGrid()) {
+            if (fallback == null) {
+                fallback = new SearchEngine(gM.getSize(), OpenSetType.HEAP);
+            }
+            return fallback.find(gM, start, goal, new PathOptions(), null);
+        }
+        clusterGraph.update(graph);
+        search.takeExpanded();
+
+        int startCluster = clusterGraph.getCluster(start);
+        int goalCluster = clusterGraph.getCluster(goal);
+        ClusterGraph.Cluster startData = clusterGraph.getClusterData(startCluster);
+        ClusterGraph.Cluster goalData = clusterGraph.getClusterData(goalCluster);
+        search.run(startData.row0, startData.col0, startData.rows, startData.cols, start, -1);
+        for (int e = 0; e < startData.entrances.length; e++) {
+            startDistances[e] = search.getDistance(startData.entrances[e]);
+        }
+        int direct = startCluster == goalCluster ? search.getDistance(goal) : SearchState.INFINITY;
+        search.run(goalData.row0, goalData.col0, goalData.rows, goalData.cols, goal, -1);
+        for (int e = 0; e < goalData.entrances.length; e++) {
+            goalDistances[e] = search.getDistance(goalData.entrances[e]);
+        }
+
+        int expanded = searchAbstractGraph(start, goal, startData, goalCluster, goalData, direct);
+        if (state.getGCost(goal) == SearchState.INFINITY) {
+            return PathResult.notFound(expanded + search.takeExpanded(), generated);
+        }
+        return refinePath(start, goal, expanded);
+    }
+
+    /**
+     * It runs A* on the abstract graph, the start and goal cells being linked to
+     * the abstract nodes of their clusters.
+     *
+     * @return The number of abstract nodes expanded.
+     */
+    private int searchAbstractGraph(int start, int goal, ClusterGraph.Cluster startData, int goalCluster,
+            ClusterGraph.Cluster goalData, int direct) {
+        state.reset();
+        open.clear();
+        generated = 0;
+        int expanded = 0;
+        relax(start, SearchState.NO_PARENT, 0, goal);
+
+        while (!open.isEmpty()) {
+            int cur = open.poll();
+            state.close(cur);
+            expanded++;
+            if (cur == goal) {
+                break;
+            }
+            int curGCost = state.getGCost(cur);
+            if (cur == start) {
+                for (int e = 0; e < startData.entrances.length; e++) {
+                    if (startDistances[e] != SearchState.INFINITY) {
+                        relax(startData.entrances[e], cur, curGCost + startDistances[e], goal);
+                    }
+                }
+                if (direct != SearchState.INFINITY) {
+                    relax(goal, cur, curGCost + direct, goal);
+                }
+            }
+            int index = clusterGraph.getEntranceIndex(cur);
+            if (index < 0) {
+                continue;
+            }
+            int cluster = clusterGraph.getCluster(cur);
+            ClusterGraph.Cluster data = clusterGraph.getClusterData(cluster);
+            int[] distances = data.distances[index];
+            for (int e = 0; e < data.entrances.length; e++) {
+                if (e != index && distances[e] != SearchState.INFINITY) {
+                    relax(data.entrances[e], cur, curGCost + distances[e], goal);
+                }
+            }
+            for (int partner : data.partners[index]) {
+                relax(partner, cur, curGCost + gM.getDistance(cur, partner), goal);
+            }
+            if (cluster == goalCluster && goalDistances[index] != SearchState.INFINITY) {
+                relax(goal, cur, curGCost + goalDistances[index], goal);
+            }
+        }
+        return expanded;
+    }
+
+    private void relax(int cell, int parent, int gCost, int goal) {
+        if (state.isClosed(cell) || gCost >= state.getGCost(cell)) {
+            return;
+        }
+        int hCost;
+        if (open.contains(cell)) {
+            hCost = state.getHCost(cell);
+        } else {
+            hCost = gM.getDistance(cell, goal);
+            generated++;
+        }
+        state.setGCost(cell, gCost, parent);
+        state.setHCost(cell, hCost);
+        open.push(cell, gCost + hCost, hCost);
+    }
+
+    /**
+     * It turns the abstract path into cells: an abstract edge between two
+     * clusters is a single step, and one inside a cluster is searched again
+     * within the cluster.
+     */
+    private PathResult refinePath(int start, int goal, int expanded) {
+        int abstractLength = 1;
+        for (int cell = goal; cell != start; cell = state.getParent(cell)) {
+            abstractLength++;
+        }
+        int[] abstractPath = new int[abstractLength];
+        int cell = goal;
+        for (int i = abstractLength - 1; i >= 0; i--) {
+            abstractPath[i] = cell;
+            cell = state.getParent(cell);
+        }
+
+        int[] cells = new int[Math.max(16, abstractLength * 2)];
+        cells[0] = start;
+        int length = 1;
+        for (int i = 1; i < abstractLength; i++) {
+            int from = abstractPath[i - 1];
+            int to = abstractPath[i];
+            int cluster = clusterGraph.getCluster(from);
+            if (cluster != clusterGraph.getCluster(to)) {
+                if (length == cells.length) {
+                    cells = Arrays.copyOf(cells, length * 2);
+                }
+                cells[length++] = to;
+                continue;
+            }
+            ClusterGraph.Cluster data = clusterGraph.getClusterData(cluster);
+            search.run(data.row0, data.col0, data.rows, data.cols, from, to);
+            if (length + data.rows * data.cols > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, length + data.rows * data.cols));
+            }
+            length = search.appendPath(to, cells, length);
+        }
+        return new PathResult(state.getGCost(goal), Arrays.copyOf(cells, length), gM.getCols(),
+                expanded + search.takeExpanded(), generated);
+    }
+}
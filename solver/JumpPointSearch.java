@@ -0,0 +1,240 @@
+package solver;
+
+import custom_listener.SearchListener;
+import grid.GridModel;
+import open_set.OpenSet;
+
+/**
+ * Jump Point Search on a uniform 8-connected grid where diagonal moves are
+ * always allowed, even between two walls. From each expanded cell it only
+ * follows the natural and forced neighbours of the direction it was reached
+ * from, and jumps along each of them until it meets the goal or a cell with a
+ * forced neighbour, so only these jump points enter the open set. The paths
+ * are optimal, with the same cost as A*.
+ * It shares the search state and open set of its SearchEngine.
+ */
+class JumpPointSearch {
+    private static final int NO_CELL = -1;
+
+    private final SearchState state;
+    private final OpenSet open;
+    private final int[] neighbourRows = new int[8];
+    private final int[] neighbourCols = new int[8];
+    private GridModel gM;
+    private int rows;
+    private int cols;
+
+    JumpPointSearch(SearchState state, OpenSet open) {
+        this.state = state;
+        this.open = open;
+    }
+
+    /**
+     * It finds the shortest path between the start and goal cells, which must be
+     * walkable, on a state and open set that were just reset.
+     */
+    PathResult find(GridModel gM, int start, int goal, SearchListener listener) {
+        this.gM = gM;
+        rows = gM.getRows();
+        cols = gM.getCols();
+        int expanded = 0;
+        int generated = 1;
+
+        int startHCost = gM.getDistance(start, goal);
+        state.setGCost(start, 0, SearchState.NO_PARENT);
+        state.setHCost(start, startHCost);
+        open.push(start, startHCost, startHCost);
+
+        while (!open.isEmpty()) {
+            int curIndex = open.poll();
+            state.close(curIndex);
+            expanded++;
+
+            if (curIndex == goal) {
+                return retracePath(start, goal, expanded, generated);
+            }
+            if (listener != null) {
+                listener.nodeExpanded(curIndex);
+            }
+
+            int row = curIndex / cols;
+            int col = curIndex % cols;
+            int curGCost = state.getGCost(curIndex);
+            int count = findNeighbours(curIndex, row, col);
+            for (int i = 0; i < count; i++) {
+                int jumpPoint = jump(neighbourRows[i], neighbourCols[i], neighbourRows[i] - row,
+                        neighbourCols[i] - col, goal);
+                if (jumpPoint == NO_CELL || state.isClosed(jumpPoint)) {
+                    continue;
+                }
+
+                int newGCost = curGCost + gM.getDistance(curIndex, jumpPoint);
+                if (newGCost < state.getGCost(jumpPoint)) {
+                    boolean queued = open.contains(jumpPoint);
+                    int hCost;
+                    if (queued) {
+                        hCost = state.getHCost(jumpPoint);
+                    } else {
+                        hCost = gM.getDistance(jumpPoint, goal);
+                        generated++;
+                    }
+                    state.setGCost(jumpPoint, newGCost, curIndex);
+                    state.setHCost(jumpPoint, hCost);
+                    open.push(jumpPoint, newGCost + hCost, hCost);
+                    if (listener != null) {
+                        listener.nodeQueued(jumpPoint, newGCost, hCost, !queued);
+                    }
+                }
+            }
+        }
+        return PathResult.notFound(expanded, generated);
+    }
+
+    private boolean isWalkable(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols && gM.isWalkable(row * cols + col);
+    }
+
+    /**
+     * It fills the neighbour arrays with the cells worth following from the
+     * given cell: every walkable neighbour for the start cell, otherwise the
+     * natural neighbours in the direction of travel and the forced neighbours
+     * next to a wall.
+     *
+     * @return The number of neighbours.
+     */
+    private int findNeighbours(int cell, int row, int col) {
+        int count = 0;
+        int parent = state.getParent(cell);
+        if (parent == SearchState.NO_PARENT) {
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dCol = -1; dCol <= 1; dCol++) {
+                    if ((dRow != 0 || dCol != 0) && isWalkable(row + dRow, col + dCol)) {
+                        neighbourRows[count] = row + dRow;
+                        neighbourCols[count++] = col + dCol;
+                    }
+                }
+            }
+            return count;
+        }
+
+        int dRow = Integer.signum(row - parent / cols);
+        int dCol = Integer.signum(col - parent % cols);
+        if (dRow != 0 && dCol != 0) {
+            if (isWalkable(row + dRow, col)) {
+                neighbourRows[count] = row + dRow;
+                neighbourCols[count++] = col;
+            }
+            if (isWalkable(row, col + dCol)) {
+                neighbourRows[count] = row;
+                neighbourCols[count++] = col + dCol;
+            }
+            if (isWalkable(row + dRow, col + dCol)) {
+                neighbourRows[count] = row + dRow;
+                neighbourCols[count++] = col + dCol;
+            }
+            if (!isWalkable(row, col - dCol)) {
+                neighbourRows[count] = row + dRow;
+                neighbourCols[count++] = col - dCol;
+            }
+            if (!isWalkable(row - dRow, col)) {
+                neighbourRows[count] = row - dRow;
+                neighbourCols[count++] = col + dCol;
+            }
+        } else if (dRow != 0) {
+            if (isWalkable(row + dRow, col)) {
+                neighbourRows[count] = row + dRow;
+                neighbourCols[count++] = col;
+            }
+            if (!isWalkable(row, col + 1)) {
+                neighbourRows[count] = row + dRow;
+                neighbourCols[count++] = col + 1;
+            }
+            if (!isWalkable(row, col - 1)) {
+                neighbourRows[count] = row + dRow;
+                neighbourCols[count++] = col - 1;
+            }
+        } else {
+            if (isWalkable(row, col + dCol)) {
+                neighbourRows[count] = row;
+                neighbourCols[count++] = col + dCol;
+            }
+            if (!isWalkable(row + 1, col)) {
+                neighbourRows[count] = row + 1;
+                neighbourCols[count++] = col + dCol;
+            }
+            if (!isWalkable(row - 1, col)) {
+                neighbourRows[count] = row - 1;
+                neighbourCols[count++] = col + dCol;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * It walks from the given cell in the given direction and returns the first
+     * jump point: the goal, a cell with a forced neighbour, or for a diagonal
+     * direction a cell from which a straight jump finds a jump point.
+     *
+     * @return The index of the jump point, or NO_CELL if a wall or the border is
+     *         reached first.
+     */
+    private int jump(int row, int col, int dRow, int dCol, int goal) {
+        while (isWalkable(row, col)) {
+            int cell = row * cols + col;
+            if (cell == goal) {
+                return cell;
+            }
+            if (dRow != 0 && dCol != 0) {
+                if ((isWalkable(row + dRow, col - dCol) && !isWalkable(row, col - dCol))
+                        || (isWalkable(row - dRow, col + dCol) && !isWalkable(row - dRow, col))) {
+                    return cell;
+                }
+                if (jump(row, col + dCol, 0, dCol, goal) != NO_CELL
+                        || jump(row + dRow, col, dRow, 0, goal) != NO_CELL) {
+                    return cell;
+                }
+            } else if (dCol != 0) {
+                if ((isWalkable(row + 1, col + dCol) && !isWalkable(row + 1, col))
+                        || (isWalkable(row - 1, col + dCol) && !isWalkable(row - 1, col))) {
+                    return cell;
+                }
+            } else {
+                if ((isWalkable(row + dRow, col + 1) && !isWalkable(row, col + 1))
+                        || (isWalkable(row + dRow, col - 1) && !isWalkable(row, col - 1))) {
+                    return cell;
+                }
+            }
+            row += dRow;
+            col += dCol;
+        }
+        return NO_CELL;
+    }
+
+    /**
+     * It follows the parents from the goal back to the start and fills in the
+     * straight or diagonal segment between each pair of jump points.
+     */
+    private PathResult retracePath(int start, int goal, int expanded, int generated) {
+        int length = 1;
+        for (int cell = goal; cell != start; cell = state.getParent(cell)) {
+            length += steps(cell, state.getParent(cell));
+        }
+        int[] cells = new int[length];
+        int i = length - 1;
+        cells[i] = goal;
+        for (int cell = goal; cell != start; cell = state.getParent(cell)) {
+            int parent = state.getParent(cell);
+            int dRow = Integer.signum(parent / cols - cell / cols);
+            int dCol = Integer.signum(parent % cols - cell % cols);
+            for (int step = steps(cell, parent); step > 0; step--) {
+                cells[i - 1] = cells[i] + dRow * cols + dCol;
+                i--;
+            }
+        }
+        return new PathResult(state.getGCost(goal), cells, cols, expanded, generated);
+    }
+
+    private int steps(int cellA, int cellB) {
+        return Math.max(Math.abs(cellA / cols - cellB / cols), Math.abs(cellA % cols - cellB % cols));
+    }
+}
@@ -0,0 +1,243 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import grid.CsrGraph;
+import grid.GridModel;
+
+/**
+ * The ALT heuristic (A*, landmarks, triangle inequality). A few landmark cells
+ * are spread along the border of the grid, and the distances from each of
+ * them to every cell, and from every cell to each of them, are computed once.
+ * For any landmark L the triangle inequality gives two lower bounds on the
+ * cost from a cell to the goal, d(L, goal) - d(L, cell) and d(cell, L) -
+ * d(goal, L), and the heuristic is the largest of them, together with the
+ * octile distance on a uniform grid. Behind walls it is much tighter than the
+ * octile distance alone, so A* expands far fewer cells.
+ * The landmark Dijkstras run in parallel on a ForkJoinPool. The distances are
+ * stored cell by cell, the landmarks of a cell side by side, as unsigned 16 bit
+ * values when the grid is small enough and as ints otherwise. On a graph whose
+ * links all go both ways, the distances to a landmark are the distances from
+ * it and are only stored once.
+ * The heuristic is a snapshot: it is only used on the grid it was computed on,
+ * and only until the walls or links of that grid change.
+ */
+public class LandmarkHeuristic implements Heuristic {
+    private static final int COMPACT_UNREACHABLE = Character.MAX_VALUE;
+    private static final int UNREACHABLE = SearchState.INFINITY;
+
+    private final GridModel gM;
+    private final int version;
+    private final boolean octile;
+    private final int[] landmarks;
+    private final int count;
+    private final char[] compactFrom;
+    private final char[] compactTo;
+    private final int[] from;
+    private final int[] to;
+
+    public LandmarkHeuristic(GridModel gM, int landmarkCount) {
+        this(gM, landmarkCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * It picks the landmarks and computes their distance tables.
+     *
+     * @param gM            The grid the heuristic is for.
+     * @param landmarkCount The number of landmarks to pick, fewer may be kept if
+     *                      the grid has too few walkable border cells.
+     * @param pool          The pool the Dijkstras run on.
+     */
+    public LandmarkHeuristic(GridModel gM, int landmarkCount, ForkJoinPool pool) {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("At least one landmark is needed");
+        }
+        this.gM = gM;
+        this.version = gM.getVersion();
+        CsrGraph graph = gM.getCsrGraph();
+        CsrGraph reverse = graph.getReverse();
+        this.octile = graph.isUniformGrid();
+        this.landmarks = pickLandmarks(landmarkCount);
+        this.count = landmarks.length;
+
+        List<ForkJoinTask<int[]>> fromTasks = new ArrayList<>(count);
+        List<ForkJoinTask<int[]>> toTasks = new ArrayList<>(count);
+        for (int l = 0; l < count; l++) {
+            int landmark = landmarks[l];
+            fromTasks.add(pool.submit(() -> ShortestPathTree.distances(gM, graph, landmark)));
+            if (reverse != graph) {
+                toTasks.add(pool.submit(() -> ShortestPathTree.distances(gM, reverse, landmark)));
+            }
+        }
+        int[][] fromDistances = new int[count][];
+        int[][] toDistances = new int[count][];
+        int maxDistance = 0;
+        for (int l = 0; l < count; l++) {
+            fromDistances[l] = fromTasks.get(l).join();
+            toDistances[l] = reverse != graph ? toTasks.get(l).join() : fromDistances[l];
+            maxDistance = Math.max(maxDistance, maxFinite(fromDistances[l]));
+            maxDistance = Math.max(maxDistance, maxFinite(toDistances[l]));
+        }
+
+        boolean symmetric = reverse == graph;
+        if (maxDistance < COMPACT_UNREACHABLE) {
+            compactFrom = interleaveCompact(fromDistances);
+            compactTo = symmetric ? compactFrom : interleaveCompact(toDistances);
+            from = null;
+            to = null;
+        } else {
+            from = interleave(fromDistances);
+            to = symmetric ? from : interleave(toDistances);
+            compactFrom = null;
+            compactTo = null;
+        }
+    }
+
+    /**
+     * It spreads the landmarks around the grid: for each one, a ray is cast
+     * from the border towards the centre, at evenly spaced angles, and the first
+     * walkable cell met is kept.
+     */
+    private int[] pickLandmarks(int landmarkCount) {
+        int rows = gM.getRows();
+        int cols = gM.getCols();
+        double centreRow = (rows - 1) / 2.0;
+        double centreCol = (cols - 1) / 2.0;
+        int[] picked = new int[landmarkCount];
+        int pickedCount = 0;
+        for (int l = 0; l < landmarkCount; l++) {
+            double angle = 2 * Math.PI * l / landmarkCount;
+            double dRow = Math.sin(angle);
+            double dCol = Math.cos(angle);
+            double scale = Math.min(dRow == 0 ? Double.MAX_VALUE : Math.abs(centreRow / dRow),
+                    dCol == 0 ? Double.MAX_VALUE : Math.abs(centreCol / dCol));
+            int steps = (int) Math.ceil(scale);
+            for (int step = steps; step >= 0; step--) {
+                double t = scale * step / Math.max(steps, 1);
+                int row = (int) Math.round(centreRow + dRow * t);
+                int col = (int) Math.round(centreCol + dCol * t);
+                if (row < 0 || row >= rows || col < 0 || col >= cols) {
+                    continue;
+                }
+                int cell = row * cols + col;
+                if (gM.isWalkable(cell)) {
+                    boolean known = false;
+                    for (int i = 0; i < pickedCount; i++) {
+                        known |= picked[i] == cell;
+                    }
+                    if (!known) {
+                        picked[pickedCount++] = cell;
+                    }
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(picked, pickedCount);
+    }
+
+    private static int maxFinite(int[] distances) {
+        int max = 0;
+        for (int distance : distances) {
+            if (distance != UNREACHABLE && distance > max) {
+                max = distance;
+            }
+        }
+        return max;
+    }
+
+    private char[] interleaveCompact(int[][] distances) {
+        int size = gM.getSize();
+        char[] table = new char[size * count];
+        for (int l = 0; l < count; l++) {
+            int[] landmarkDistances = distances[l];
+            for (int cell = 0; cell < size; cell++) {
+                int distance = landmarkDistances[cell];
+                table[cell * count + l] = (char) (distance == UNREACHABLE ? COMPACT_UNREACHABLE : distance);
+            }
+        }
+        return table;
+    }
+
+    private int[] interleave(int[][] distances) {
+        int size = gM.getSize();
+        int[] table = new int[size * count];
+        for (int l = 0; l < count; l++) {
+            int[] landmarkDistances = distances[l];
+            for (int cell = 0; cell < size; cell++) {
+                table[cell * count + l] = landmarkDistances[cell];
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the largest lower bound given by the landmarks, and by the octile
+     * distance on a uniform grid. A landmark that cannot reach, or be reached
+     * from, one of the two cells gives no bound.
+     */
+    @Override
+    public int estimate(int cell, int goal) {
+        int best = octile ? gM.getDistance(cell, goal) : 0;
+        int cellBase = cell * count;
+        int goalBase = goal * count;
+        if (compactFrom != null) {
+            for (int l = 0; l < count; l++) {
+                int fromCell = compactFrom[cellBase + l];
+                int fromGoal = compactFrom[goalBase + l];
+                if (fromCell != COMPACT_UNREACHABLE && fromGoal != COMPACT_UNREACHABLE) {
+                    best = Math.max(best, fromGoal - fromCell);
+                }
+                int toCell = compactTo[cellBase + l];
+                int toGoal = compactTo[goalBase + l];
+                if (toCell != COMPACT_UNREACHABLE && toGoal != COMPACT_UNREACHABLE) {
+                    best = Math.max(best, toCell - toGoal);
+                }
+            }
+        } else {
+            for (int l = 0; l < count; l++) {
+                int fromCell = from[cellBase + l];
+                int fromGoal = from[goalBase + l];
+                if (fromCell != UNREACHABLE && fromGoal != UNREACHABLE) {
+                    best = Math.max(best, fromGoal - fromCell);
+                }
+                int toCell = to[cellBase + l];
+                int toGoal = to[goalBase + l];
+                if (toCell != UNREACHABLE && toGoal != UNREACHABLE) {
+                    best = Math.max(best, toCell - toGoal);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns true if the heuristic was computed on this grid, and its walls and
+     * links have not changed since.
+     */
+    @Override
+    public boolean isValidFor(GridModel gM) {
+        return gM == this.gM && gM.getVersion() == version;
+    }
+
+    /**
+     * Returns the cells picked as landmarks.
+     *
+     * @return A copy of the landmark indexes.
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Returns true if the distances are stored as 16 bit values.
+     *
+     * @return A boolean value.
+     */
+    public boolean isCompact() {
+        return compactFrom != null;
+    }
+}
@@ -0,0 +1,137 @@
+package solver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import grid.GridModel;
+
+/**
+ * A bounded cache of the paths found on one grid, keyed by the start cell, the
+ * goal cell and the version of the grid. Placing or removing a wall or
+ * changing a link bumps the version, so a cached path is never returned for a
+ * grid it was not found on. When the cache is full, the least recently used
+ * path is evicted. Unreachable goals are cached too.
+ * It counts its hits and misses, and can be shared by several threads.
+ */
+public class PathCache {
+    private final GridModel gM;
+    private final int capacity;
+    private final Map<Key, PathResult> paths;
+    private int version;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param gM       The grid the paths are found on.
+     * @param capacity The maximum number of paths kept.
+     */
+    public PathCache(GridModel gM, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of a path cache must be positive");
+        }
+        this.gM = gM;
+        this.capacity = capacity;
+        this.paths = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PathResult> eldest) {
+                return size() > PathCache.this.capacity;
+            }
+        };
+        this.version = gM.getVersion();
+    }
+
+    /**
+     * Returns the path found between the two cells on the current version of the
+     * grid, or null if there is none. The paths of older versions are dropped,
+     * as they can never be returned again.
+     *
+     * @param start The index of the start cell.
+     * @param goal  The index of the goal cell.
+     * @return A PathResult object, or null.
+     */
+    public synchronized PathResult get(int start, int goal) {
+        int currentVersion = gM.getVersion();
+        if (currentVersion != version) {
+            paths.clear();
+            version = currentVersion;
+        }
+        PathResult result = paths.get(new Key(start, goal, currentVersion));
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    /**
+     * It stores the path found between the two cells on the given version of the
+     * grid, which should be read before the search started: if the grid changed
+     * during the search, the path is stored under a version that is already out
+     * of date and will never be returned.
+     *
+     * @param start   The index of the start cell.
+     * @param goal    The index of the goal cell.
+     * @param version The version of the grid the search ran on.
+     * @param result  The result of the search.
+     */
+    public synchronized void put(int start, int goal, int version, PathResult result) {
+        if (version == gM.getVersion()) {
+            paths.put(new Key(start, goal, version), result);
+        }
+    }
+
+    /**
+     * It drops every path and resets the counters.
+     */
+    public synchronized void clear() {
+        paths.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized int size() {
+        return paths.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The key of a cached path.
+     */
+    private static final class Key {
+        private final int start;
+        private final int goal;
+        private final int version;
+
+        private Key(int start, int goal, int version) {
+            this.start = start;
+            this.goal = goal;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return start == other.start && goal == other.goal && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return (start * 31 + goal) * 31 + version;
+        }
+    }
+}
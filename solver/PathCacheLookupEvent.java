@@ -0,0 +1,21 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of a lookup of the path cache by a solve.
+ */
+@Name("pathfinding.PathCacheLookup")
+@Label("Path Cache Lookup")
+@Category({ "Pathfinding", "Solver" })
+@Description("A lookup of the path cache before a search")
+class PathCacheLookupEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Hit")
+    boolean hit;
+}
@@ -0,0 +1,60 @@
+package solver;
+
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.GridModel;
+import open_set.OpenSetType;
+import util.Position;
+
+/**
+ * The headless entry point of the solvers: a synchronous call that returns
+ * the path between two cells. It does not fire any NodeModel event nor sleep,
+ * and it is reentrant: each call borrows its own SearchEngine from a pool, so
+ * one PathFinder can serve many threads searching the same grid at once.
+ */
+public class PathFinder {
+    private final SearchContextPool pool;
+
+    public PathFinder() {
+        this(new SearchContextPool());
+    }
+
+    public PathFinder(SearchContextPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * It finds the shortest path between the start and goal positions.
+     *
+     * @param gM      The grid to search.
+     * @param start   The position of the start cell.
+     * @param goal    The position of the goal cell.
+     * @param options The algorithm and open set to use.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     * @throws NodePositionOutOfModelBounds If a position is outside of the grid.
+     */
+    public PathResult find(GridModel gM, Position start, Position goal, PathOptions options)
+            throws NodePositionOutOfModelBounds {
+        int startIndex = gM.getIndex(start.getRow(), start.getCol());
+        int goalIndex = gM.getIndex(goal.getRow(), goal.getCol());
+        return find(gM, startIndex, goalIndex, options);
+    }
+
+    /**
+     * It finds the shortest path between the start and goal cells.
+     *
+     * @param gM      The grid to search.
+     * @param start   The index of the start cell.
+     * @param goal    The index of the goal cell.
+     * @param options The algorithm and open set to use.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     */
+    public PathResult find(GridModel gM, int start, int goal, PathOptions options) {
+        OpenSetType openSetType = options.getOpenSetType();
+        SearchEngine engine = pool.acquire(gM.getSize(), openSetType);
+        try {
+            return engine.find(gM, start, goal, options, null);
+        } finally {
+            pool.release(engine, openSetType);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package solver;
+
+import open_set.OpenSetType;
+
+/**
+ * The options of a path query: the search algorithm, the open set it uses,
+ * whether the two frontiers of a bidirectional search run on two threads and
+ * the heuristic of A*, null for the octile distance.
+ * It is immutable, so one instance can be shared by every query.
+ */
+public class PathOptions {
+    private final Algorithm algorithm;
+    private final OpenSetType openSetType;
+    private final boolean parallel;
+    private final Heuristic heuristic;
+
+    public PathOptions() {
+        this(Algorithm.ASTAR, OpenSetType.HEAP);
+    }
+
+    public PathOptions(Algorithm algorithm, OpenSetType openSetType) {
+        this(algorithm, openSetType, false);
+    }
+
+    public PathOptions(Algorithm algorithm, OpenSetType openSetType, boolean parallel) {
+        this(algorithm, openSetType, parallel, null);
+    }
+
+    public PathOptions(Algorithm algorithm, OpenSetType openSetType, boolean parallel, Heuristic heuristic) {
+        this.algorithm = algorithm;
+        this.openSetType = openSetType;
+        this.parallel = parallel;
+        this.heuristic = heuristic;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public OpenSetType getOpenSetType() {
+        return openSetType;
+    }
+
+    /**
+     * Returns true if a bidirectional search runs its backward frontier on a
+     * second thread.
+     *
+     * @return A boolean value.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Returns the heuristic of A*, or null if the octile distance of the grid is
+     * used.
+     *
+     * @return A Heuristic object, or null.
+     */
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+}
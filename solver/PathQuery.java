@@ -0,0 +1,24 @@
+package solver;
+
+import util.Position;
+
+/**
+ * A start and goal position pair, to be solved by a QueryEngine.
+ */
+public class PathQuery {
+    private final Position start;
+    private final Position goal;
+
+    public PathQuery(Position start, Position goal) {
+        this.start = start;
+        this.goal = goal;
+    }
+
+    public Position getStart() {
+        return start;
+    }
+
+    public Position getGoal() {
+        return goal;
+    }
+}
@@ -0,0 +1,115 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import util.Position;
+
+/**
+ * The outcome of a path query: whether a path was found, its cost, the
+ * sequence of cells from the start to the goal (both included) and how much
+ * work the search did.
+ */
+public class PathResult {
+    private static final int[] NO_CELLS = new int[0];
+
+    private final boolean found;
+    private final int cost;
+    private final int[] cells;
+    private final int cols;
+    private final int expanded;
+    private final int generated;
+
+    public PathResult(int cost, int[] cells, int cols, int expanded, int generated) {
+        this.found = true;
+        this.cost = cost;
+        this.cells = cells;
+        this.cols = cols;
+        this.expanded = expanded;
+        this.generated = generated;
+    }
+
+    private PathResult(int expanded, int generated) {
+        this.found = false;
+        this.cost = -1;
+        this.cells = NO_CELLS;
+        this.cols = 1;
+        this.expanded = expanded;
+        this.generated = generated;
+    }
+
+    /**
+     * Creates the result of a query whose goal cannot be reached.
+     *
+     * @param expanded  The number of cells expanded before giving up.
+     * @param generated The number of cells added to the open set.
+     * @return A PathResult object with no path.
+     */
+    public static PathResult notFound(int expanded, int generated) {
+        return new PathResult(expanded, generated);
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * Returns the cost of the path, or -1 if no path was found.
+     *
+     * @return The sum of the weights of the links along the path.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Returns the number of cells of the path, start and goal included.
+     *
+     * @return The length of the cell sequence.
+     */
+    public int getLength() {
+        return cells.length;
+    }
+
+    /**
+     * Returns the index of the i-th cell of the path, the cells being numbered
+     * row by row.
+     *
+     * @param i The position of the cell in the path.
+     * @return The index of the cell.
+     */
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    /**
+     * Returns the positions of the cells of the path, from the start to the goal.
+     *
+     * @return A new list of positions.
+     */
+    public List<Position> getPath() {
+        List<Position> positions = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            positions.add(new Position(cell / cols, cell % cols));
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the number of cells taken out of the open set.
+     *
+     * @return The number of expanded cells.
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Returns the number of cells added to the open set.
+     *
+     * @return The number of generated cells.
+     */
+    public int getGenerated() {
+        return generated;
+    }
+}
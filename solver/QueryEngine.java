@@ -0,0 +1,86 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import custom_exceptions.NodePositionOutOfModelBounds;
+import grid.GridModel;
+
+/**
+ * It solves batches of independent path queries in parallel on one shared
+ * GridModel. The grid is only read: its topology is built once on the calling
+ * thread, and every task borrows its own search engine from the pool of the
+ * PathFinder. The grid must not be edited while a batch is running.
+ * The executor decides the threads the queries run on, for example a fixed
+ * pool with one platform thread per core, or one virtual thread per task.
+ */
+public class QueryEngine {
+    private static final int QUERIES_PER_TASK = 64;
+
+    private final GridModel gM;
+    private final ExecutorService executor;
+    private final PathFinder pathFinder;
+
+    public QueryEngine(GridModel gM, ExecutorService executor) {
+        this.gM = gM;
+        this.executor = executor;
+        this.pathFinder = new PathFinder();
+    }
+
+    /**
+     * It finds the path of a single query on the calling thread.
+     *
+     * @param query   The start and goal of the path.
+     * @param options The algorithm and open set to use.
+     * @return A PathResult object.
+     * @throws NodePositionOutOfModelBounds If a position is outside of the grid.
+     */
+    public PathResult find(PathQuery query, PathOptions options) throws NodePositionOutOfModelBounds {
+        return pathFinder.find(gM, query.getStart(), query.getGoal(), options);
+    }
+
+    /**
+     * It finds the paths of all the queries, split in tasks of a few queries
+     * each, and waits for them.
+     *
+     * @param queries The start and goal of every path.
+     * @param options The algorithm and open set to use.
+     * @return The results, in the order of the queries.
+     * @throws NodePositionOutOfModelBounds If a position is outside of the grid.
+     * @throws InterruptedException         If interrupted while waiting.
+     * @throws ExecutionException           If a search failed.
+     */
+    public List<PathResult> findAll(List<PathQuery> queries, PathOptions options)
+            throws NodePositionOutOfModelBounds, InterruptedException, ExecutionException {
+        int[] starts = new int[queries.size()];
+        int[] goals = new int[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            PathQuery query = queries.get(i);
+            starts[i] = gM.getIndex(query.getStart().getRow(), query.getStart().getCol());
+            goals[i] = gM.getIndex(query.getGoal().getRow(), query.getGoal().getCol());
+        }
+        gM.getCsrGraph();
+
+        PathResult[] results = new PathResult[queries.size()];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < queries.size(); from += QUERIES_PER_TASK) {
+            int first = from;
+            int last = Math.min(from + QUERIES_PER_TASK, queries.size());
+            tasks.add(() -> {
+                for (int i = first; i < last; i++) {
+                    results[i] = pathFinder.find(gM, starts[i], goals[i], options);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+        return Arrays.asList(results);
+    }
+}
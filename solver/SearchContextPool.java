@@ -0,0 +1,51 @@
+package solver;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import open_set.OpenSetType;
+
+/**
+ * A pool of search engines, one deque per open set type, shared by the threads
+ * running queries. A thread borrows an engine for the length of a query (or of
+ * a batch of queries) and gives it back, so the scratch arrays are allocated
+ * once per concurrent search rather than once per query, whether the queries
+ * run on platform or virtual threads.
+ */
+public class SearchContextPool {
+    private final Map<OpenSetType, ConcurrentLinkedDeque<SearchEngine>> engines = new EnumMap<>(OpenSetType.class);
+
+    public SearchContextPool() {
+        for (OpenSetType openSetType : OpenSetType.values()) {
+            engines.put(openSetType, new ConcurrentLinkedDeque<>());
+        }
+    }
+
+    /**
+     * Borrows an engine able to search a grid of the given size, creating one if
+     * none is free.
+     *
+     * @param size        The number of cells of the grid.
+     * @param openSetType The open set the engine must use.
+     * @return A SearchEngine object, to be given back with release.
+     */
+    public SearchEngine acquire(int size, OpenSetType openSetType) {
+        ConcurrentLinkedDeque<SearchEngine> free = engines.get(openSetType);
+        SearchEngine engine = free.pollFirst();
+        while (engine != null && engine.getSize() != size) {
+            engine = free.pollFirst();
+        }
+        return engine != null ? engine : new SearchEngine(size, openSetType);
+    }
+
+    /**
+     * Gives an engine back to the pool.
+     *
+     * @param engine      The engine returned by acquire.
+     * @param openSetType The open set type it was acquired with.
+     */
+    public void release(SearchEngine engine, OpenSetType openSetType) {
+        engines.get(openSetType).offerFirst(engine);
+    }
+}
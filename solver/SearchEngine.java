@@ -0,0 +1,204 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import custom_listener.SearchListener;
+import grid.CsrGraph;
+import grid.GridModel;
+import open_set.CountingOpenSet;
+import open_set.OpenSet;
+import open_set.OpenSetType;
+
+/**
+ * It runs A* or Dijkstra on the compressed sparse row graph of a grid, with
+ * its own search state and open set. The engine never touches the NodeModels,
+ * so it fires no event and can be called from any thread, but one engine must
+ * only run one search at a time.
+ * An optional SearchListener is told about every expanded and queued cell,
+ * which is how the Swing solvers draw the search.
+ * An engine created to count the operations on its open sets puts a
+ * CountingOpenSet in front of each of them; the counts of the last search are
+ * read from getCountingOpenSets.
+ */
+public class SearchEngine {
+    private final SearchState state;
+    private final OpenSet open;
+    private final OpenSetType openSetType;
+    private final JumpPointSearch jumpPointSearch;
+    private final boolean counting;
+    private final List<CountingOpenSet> countingOpenSets = new ArrayList<>(2);
+    private BidirectionalSearch bidirectionalSearch;
+
+    public SearchEngine(int size, OpenSetType openSetType) {
+        this(size, openSetType, false);
+    }
+
+    /**
+     * @param size        The number of cells the engine can search.
+     * @param openSetType The open set to use.
+     * @param counting    True to count the operations on the open sets.
+     */
+    public SearchEngine(int size, OpenSetType openSetType, boolean counting) {
+        state = new SearchState(size);
+        this.openSetType = openSetType;
+        this.counting = counting;
+        open = createOpenSet(size);
+        jumpPointSearch = new JumpPointSearch(state, open);
+    }
+
+    private OpenSet createOpenSet(int size) {
+        if (!counting) {
+            return openSetType.create(size);
+        }
+        CountingOpenSet countingOpenSet = new CountingOpenSet(openSetType.create(size));
+        countingOpenSets.add(countingOpenSet);
+        return countingOpenSet;
+    }
+
+    /**
+     * Returns true if the engine counts the operations on its open sets.
+     *
+     * @return A boolean value.
+     */
+    public boolean isCounting() {
+        return counting;
+    }
+
+    /**
+     * Returns the open sets of the engine with the counts of the last search,
+     * the one of the backward frontier included once a bidirectional search
+     * created it. The list is empty if the engine does not count.
+     *
+     * @return An unmodifiable list of CountingOpenSet objects.
+     */
+    public List<CountingOpenSet> getCountingOpenSets() {
+        return Collections.unmodifiableList(countingOpenSets);
+    }
+
+    /**
+     * Returns the number of cells the engine can search.
+     *
+     * @return The size of the search state.
+     */
+    public int getSize() {
+        return state.getSize();
+    }
+
+    /**
+     * It finds the shortest path between the start and goal cells. A query
+     * between two components of the grid fails without a search.
+     * A* keys the open set by fCost, ties being broken by hCost, with the
+     * heuristic of the options as hCost, or the octile distance to the goal if
+     * there is none or it is out of date; Dijkstra uses the gCost alone. JPS runs
+     * Jump Point Search when the graph of the grid is uniform, and A* when
+     * custom links make it irregular. The bidirectional algorithms grow a second
+     * frontier from the goal, on a second thread if the options ask for it.
+     * The open set type of the options is ignored, the engine has its own.
+     *
+     * @param gM       The grid to search.
+     * @param start    The index of the start cell.
+     * @param goal     The index of the goal cell.
+     * @param options  The algorithm to run.
+     * @param listener The listener told about the search, or null.
+     * @return A PathResult object, with no path if the goal cannot be reached.
+     */
+    public PathResult find(GridModel gM, int start, int goal, PathOptions options, SearchListener listener) {
+        state.reset();
+        open.clear();
+        for (CountingOpenSet countingOpenSet : countingOpenSets) {
+            countingOpenSet.resetCounts();
+        }
+        if (!gM.getComponentIndex().isConnected(start, goal)) {
+            return PathResult.notFound(0, 0);
+        }
+
+        Algorithm algorithm = options.getAlgorithm();
+        CsrGraph graph = gM.getCsrGraph();
+        if (algorithm == Algorithm.JPS && graph.isUniformGrid()) {
+            return jumpPointSearch.find(gM, start, goal, listener);
+        }
+        Heuristic heuristic = null;
+        if (algorithm != Algorithm.DIJKSTRA && algorithm != Algorithm.BIDIRECTIONAL_DIJKSTRA) {
+            heuristic = options.getHeuristic();
+            if (heuristic == null || !heuristic.isValidFor(gM)) {
+                heuristic = gM::getDistance;
+            }
+        }
+        if (algorithm == Algorithm.BIDIRECTIONAL_ASTAR || algorithm == Algorithm.BIDIRECTIONAL_DIJKSTRA) {
+            if (bidirectionalSearch == null) {
+                bidirectionalSearch = new BidirectionalSearch(state, open, createOpenSet(state.getSize()));
+            }
+            return bidirectionalSearch.find(gM, start, goal, heuristic, options.isParallel(), listener);
+        }
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int expanded = 0;
+        int generated = 1;
+
+        int startHCost = heuristic != null ? heuristic.estimate(start, goal) : 0;
+        state.setGCost(start, 0, SearchState.NO_PARENT);
+        state.setHCost(start, startHCost);
+        open.push(start, startHCost, startHCost);
+
+        while (!open.isEmpty()) {
+            int curIndex = open.poll();
+            state.close(curIndex);
+            expanded++;
+
+            if (curIndex == goal) {
+                return retracePath(start, goal, graph.getCols(), expanded, generated);
+            }
+            if (listener != null) {
+                listener.nodeExpanded(curIndex);
+            }
+
+            int curGCost = state.getGCost(curIndex);
+            for (int edge = offsets[curIndex]; edge < offsets[curIndex + 1]; edge++) {
+                int linkedIndex = targets[edge];
+                if (!gM.isWalkable(linkedIndex) || state.isClosed(linkedIndex)) {
+                    continue;
+                }
+
+                int newGCost = curGCost + weights[edge];
+                if (newGCost < state.getGCost(linkedIndex)) {
+                    boolean queued = open.contains(linkedIndex);
+                    int hCost;
+                    if (queued) {
+                        hCost = state.getHCost(linkedIndex);
+                    } else {
+                        hCost = heuristic != null ? heuristic.estimate(linkedIndex, goal) : 0;
+                        generated++;
+                    }
+                    state.setGCost(linkedIndex, newGCost, curIndex);
+                    state.setHCost(linkedIndex, hCost);
+                    open.push(linkedIndex, newGCost + hCost, hCost);
+                    if (listener != null) {
+                        listener.nodeQueued(linkedIndex, newGCost, hCost, !queued);
+                    }
+                }
+            }
+        }
+        return PathResult.notFound(expanded, generated);
+    }
+
+    /**
+     * It follows the parents from the goal back to the start and returns the
+     * cells in path order.
+     */
+    private PathResult retracePath(int start, int goal, int cols, int expanded, int generated) {
+        int length = 1;
+        for (int cell = goal; cell != start; cell = state.getParent(cell)) {
+            length++;
+        }
+        int[] cells = new int[length];
+        int cell = goal;
+        for (int i = length - 1; i >= 0; i--) {
+            cells[i] = cell;
+            cell = state.getParent(cell);
+        }
+        return new PathResult(state.getGCost(goal), cells, cols, expanded, generated);
+    }
+}
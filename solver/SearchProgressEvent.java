@@ -0,0 +1,26 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event emitted by a solve every PROGRESS_INTERVAL expanded cells, so a
+ * long search shows how fast it goes while it runs.
+ */
+@Name("pathfinding.SearchProgress")
+@Label("Search Progress")
+@Category({ "Pathfinding", "Solver" })
+@Description("The number of cells expanded so far by a running search")
+@StackTrace(false)
+class SearchProgressEvent extends jdk.jfr.Event {
+    static final int PROGRESS_INTERVAL = 1024;
+
+    @Label("Solver")
+    String solver;
+
+    @Label("Expanded Cells")
+    int expanded;
+}
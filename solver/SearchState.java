@@ -0,0 +1,117 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * The scratch data of a search, kept in primitive arrays indexed by cell: the
+ * gCost, hCost and parent of each cell, and whether it is closed.
+ * Every entry is stamped with the generation of the search that wrote it, and
+ * an entry with an older stamp reads as unvisited, so reset() is O(1) and the
+ * cost of a search only depends on the cells it touches.
+ */
+public class SearchState {
+    public static final int INFINITY = Integer.MAX_VALUE;
+    public static final int NO_PARENT = -1;
+
+    private final int[] gCosts;
+    private final int[] hCosts;
+    private final int[] parents;
+    private final boolean[] closed;
+    private final int[] stamps;
+    private int generation;
+
+    public SearchState(int size) {
+        gCosts = new int[size];
+        hCosts = new int[size];
+        parents = new int[size];
+        closed = new boolean[size];
+        stamps = new int[size];
+        generation = 1;
+    }
+
+    /**
+     * Forgets every cell of the previous search by starting a new generation.
+     * The stamps are only cleared once every 2^32 searches, when the generation
+     * counter wraps around.
+     */
+    public void reset() {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Returns the number of cells the state can hold.
+     *
+     * @return The size of the arrays.
+     */
+    public int getSize() {
+        return stamps.length;
+    }
+
+    /**
+     * Returns true if the cell was written during the current search.
+     *
+     * @param cell The index of the cell.
+     * @return A boolean value.
+     */
+    public boolean isVisited(int cell) {
+        return stamps[cell] == generation;
+    }
+
+    public int getGCost(int cell) {
+        return isVisited(cell) ? gCosts[cell] : INFINITY;
+    }
+
+    public int getHCost(int cell) {
+        return isVisited(cell) ? hCosts[cell] : 0;
+    }
+
+    public int getParent(int cell) {
+        return isVisited(cell) ? parents[cell] : NO_PARENT;
+    }
+
+    public boolean isClosed(int cell) {
+        return isVisited(cell) && closed[cell];
+    }
+
+    /**
+     * Records a new gCost and parent for the cell.
+     *
+     * @param cell   The index of the cell.
+     * @param gCost  The cost of the best known path from the start to the cell.
+     * @param parent The index of the cell before it on that path.
+     */
+    public void setGCost(int cell, int gCost, int parent) {
+        visit(cell);
+        gCosts[cell] = gCost;
+        parents[cell] = parent;
+    }
+
+    public void setHCost(int cell, int hCost) {
+        visit(cell);
+        hCosts[cell] = hCost;
+    }
+
+    public void close(int cell) {
+        visit(cell);
+        closed[cell] = true;
+    }
+
+    /**
+     * Clears the entry of the cell if it was written by an older search.
+     *
+     * @param cell The index of the cell.
+     */
+    private void visit(int cell) {
+        if (stamps[cell] != generation) {
+            stamps[cell] = generation;
+            gCosts[cell] = INFINITY;
+            hCosts[cell] = 0;
+            parents[cell] = NO_PARENT;
+            closed[cell] = false;
+        }
+    }
+}
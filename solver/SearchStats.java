@@ -0,0 +1,185 @@
+package solver;
+
+import java.util.Locale;
+
+/**
+ * The work done by one solve, or the sum of the work of several: the cells
+ * expanded and generated, the operations on the open sets, the path found and
+ * the time spent clearing the previous search, searching and retracing the
+ * path.
+ * It is immutable; plus adds two of them, so that the stats of many runs can
+ * be gathered in one object. The peak open set size is the largest of the
+ * runs, every other value is a sum. A path found in the cache counts as a run
+ * and a cache hit, with no cell expanded or generated.
+ */
+public class SearchStats {
+    public static final SearchStats EMPTY = new SearchStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long runs;
+    private final long pathsFound;
+    private final long cacheHits;
+    private final long expanded;
+    private final long generated;
+    private final long pushes;
+    private final long pops;
+    private final long decreaseKeys;
+    private final long peakOpenSize;
+    private final long pathLength;
+    private final long cost;
+    private final long resetNanos;
+    private final long searchNanos;
+    private final long retraceNanos;
+
+    /**
+     * The stats of one solve.
+     *
+     * @param result       The result of the search, or the path found in the
+     *                     cache.
+     * @param cacheHit     True if the path was found in the cache, the result
+     *                     then tells nothing of the work of this solve.
+     * @param pushes       The cells pushed into the open sets.
+     * @param pops         The cells polled from the open sets.
+     * @param decreaseKeys The pushes that lowered the key of a queued cell.
+     * @param peakOpenSize The largest size of the open set, summed over the two
+     *                     open sets of a bidirectional search.
+     * @param resetNanos   The time spent clearing the previous search.
+     * @param searchNanos  The time spent searching, cache lookup included.
+     * @param retraceNanos The time spent retracing the path into the trace.
+     */
+    public SearchStats(PathResult result, boolean cacheHit, long pushes, long pops, long decreaseKeys,
+            long peakOpenSize, long resetNanos, long searchNanos, long retraceNanos) {
+        this(1, result.isFound() ? 1 : 0, cacheHit ? 1 : 0, cacheHit ? 0 : result.getExpanded(),
+                cacheHit ? 0 : result.getGenerated(), pushes, pops, decreaseKeys, peakOpenSize,
+                result.isFound() ? result.getLength() : 0, result.isFound() ? result.getCost() : 0, resetNanos,
+                searchNanos, retraceNanos);
+    }
+
+    private SearchStats(long runs, long pathsFound, long cacheHits, long expanded, long generated, long pushes,
+            long pops, long decreaseKeys, long peakOpenSize, long pathLength, long cost, long resetNanos,
+            long searchNanos, long retraceNanos) {
+        this.runs = runs;
+        this.pathsFound = pathsFound;
+        this.cacheHits = cacheHits;
+        this.expanded = expanded;
+        this.generated = generated;
+        this.pushes = pushes;
+        this.pops = pops;
+        this.decreaseKeys = decreaseKeys;
+        this.peakOpenSize = peakOpenSize;
+        this.pathLength = pathLength;
+        this.cost = cost;
+        this.resetNanos = resetNanos;
+        this.searchNanos = searchNanos;
+        this.retraceNanos = retraceNanos;
+    }
+
+    /**
+     * Returns the stats of this run or runs and of the other ones together.
+     *
+     * @param other The stats to add.
+     * @return A new SearchStats object.
+     */
+    public SearchStats plus(SearchStats other) {
+        return new SearchStats(runs + other.runs, pathsFound + other.pathsFound, cacheHits + other.cacheHits,
+                expanded + other.expanded, generated + other.generated, pushes + other.pushes, pops + other.pops,
+                decreaseKeys + other.decreaseKeys, Math.max(peakOpenSize, other.peakOpenSize),
+                pathLength + other.pathLength, cost + other.cost, resetNanos + other.resetNanos,
+                searchNanos + other.searchNanos, retraceNanos + other.retraceNanos);
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the number of runs that found a path.
+     *
+     * @return The number of paths found.
+     */
+    public long getPathsFound() {
+        return pathsFound;
+    }
+
+    /**
+     * Returns the number of runs whose path was found in the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    /**
+     * Returns the number of cells pushed into an open set they were not in. It
+     * is 0 for the searches that do not run on a counting SearchEngine, such as
+     * D* Lite, and for the paths found in a cache.
+     *
+     * @return The number of pushes.
+     */
+    public long getPushes() {
+        return pushes;
+    }
+
+    public long getPops() {
+        return pops;
+    }
+
+    public long getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    public long getPeakOpenSize() {
+        return peakOpenSize;
+    }
+
+    /**
+     * Returns the number of cells of the paths found, start and goal included.
+     *
+     * @return The length of the paths.
+     */
+    public long getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Returns the cost of the paths found.
+     *
+     * @return The sum of the costs.
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    public long getResetNanos() {
+        return resetNanos;
+    }
+
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    public long getRetraceNanos() {
+        return retraceNanos;
+    }
+
+    public long getTotalNanos() {
+        return resetNanos + searchNanos + retraceNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%d runs, %d found, %d cache hits, %d expanded, %d generated, %d pushes, %d pops, %d decrease-keys, "
+                        + "peak open %d, path length %d, cost %d, reset %.3f ms, search %.3f ms, retrace %.3f ms",
+                runs, pathsFound, cacheHits, expanded, generated, pushes, pops, decreaseKeys, peakOpenSize, pathLength, cost,
+                resetNanos / 1e6, searchNanos / 1e6, retraceNanos / 1e6);
+    }
+}
@@ -0,0 +1,235 @@
+package solver;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import custom_listener.SearchListener;
+
+/**
+ * A compact record of a search, to be replayed on a grid by a TraceReplayer
+ * after the search ran at full speed. Each event is a cell and a type:
+ * expanded, queued for the first time, queued again with a lower cost, or part
+ * of the path found. The cell is stored as the zigzag difference with the cell
+ * of the previous event, the type in its two low bits, as one variable length
+ * integer, followed for the queue events by the gCost and hCost; since the
+ * cells of a search are close to each other, most events take two to four
+ * bytes.
+ * A trace is written by one search and then only read. The recording methods
+ * are synchronized, for the two frontiers of a parallel bidirectional search.
+ */
+public class SearchTrace implements SearchListener {
+    public static final int EXPANDED = 0;
+    public static final int QUEUED = 1;
+    public static final int REQUEUED = 2;
+    public static final int PATH = 3;
+
+    private static final int MAGIC = 0x54524345;
+
+    private byte[] bytes;
+    private int byteCount;
+    private int eventCount;
+    private int expandedCount;
+    private int lastCell;
+
+    public SearchTrace() {
+        bytes = new byte[256];
+    }
+
+    private SearchTrace(byte[] bytes, int eventCount, int expandedCount) {
+        this.bytes = bytes;
+        this.byteCount = bytes.length;
+        this.eventCount = eventCount;
+        this.expandedCount = expandedCount;
+    }
+
+    @Override
+    public synchronized void nodeExpanded(int cell) {
+        writeEvent(cell, EXPANDED);
+        expandedCount++;
+    }
+
+    @Override
+    public synchronized void nodeQueued(int cell, int gCost, int hCost, boolean newlyQueued) {
+        writeEvent(cell, newlyQueued ? QUEUED : REQUEUED);
+        writeVarLong(gCost);
+        writeVarLong(hCost);
+    }
+
+    /**
+     * It records a cell of the path found, after the search.
+     *
+     * @param cell The index of the cell.
+     */
+    public synchronized void pathCell(int cell) {
+        writeEvent(cell, PATH);
+    }
+
+    private void writeEvent(int cell, int type) {
+        int delta = cell - lastCell;
+        lastCell = cell;
+        writeVarLong(((long) ((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL) << 2 | type);
+        eventCount++;
+    }
+
+    private void writeVarLong(long value) {
+        if (byteCount + 10 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        while ((value & ~0x7FL) != 0) {
+            bytes[byteCount++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[byteCount++] = (byte) value;
+    }
+
+    public synchronized int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the number of expanded events, which a replay is paced by.
+     *
+     * @return The number of expanded cells.
+     */
+    public synchronized int getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Returns the size of the encoded events.
+     *
+     * @return The number of bytes.
+     */
+    public synchronized int getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Returns a reader positioned before the first event.
+     *
+     * @return A new Reader object.
+     */
+    public synchronized Reader reader() {
+        return new Reader(bytes, byteCount);
+    }
+
+    /**
+     * It writes the trace to the stream: a magic number, the counts and the
+     * encoded events.
+     *
+     * @param out The stream to write to, left open.
+     * @throws IOException If the stream cannot be written.
+     */
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(eventCount);
+        data.writeInt(expandedCount);
+        data.writeInt(byteCount);
+        data.write(bytes, 0, byteCount);
+        data.flush();
+    }
+
+    /**
+     * It reads a trace written by writeTo.
+     *
+     * @param in The stream to read from, left open.
+     * @return A new SearchTrace object.
+     * @throws IOException If the stream cannot be read or holds no trace.
+     */
+    public static SearchTrace readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a search trace");
+        }
+        int eventCount = data.readInt();
+        int expandedCount = data.readInt();
+        int byteCount = data.readInt();
+        if (eventCount < 0 || expandedCount < 0 || byteCount < 0) {
+            throw new IOException("Corrupt search trace");
+        }
+        byte[] bytes = new byte[byteCount];
+        data.readFully(bytes);
+        return new SearchTrace(bytes, eventCount, expandedCount);
+    }
+
+    /**
+     * A cursor over the events of a trace, decoding them one at a time.
+     */
+    public static class Reader {
+        private final byte[] bytes;
+        private final int byteCount;
+        private int offset;
+        private int type;
+        private int cell;
+        private int gCost;
+        private int hCost;
+
+        private Reader(byte[] bytes, int byteCount) {
+            this.bytes = bytes;
+            this.byteCount = byteCount;
+        }
+
+        /**
+         * It decodes the next event.
+         *
+         * @return False if there is no event left.
+         */
+        public boolean next() {
+            if (offset >= byteCount) {
+                return false;
+            }
+            long event = readVarLong();
+            type = (int) (event & 3);
+            int zigzag = (int) (event >>> 2);
+            cell += (zigzag >>> 1) ^ -(zigzag & 1);
+            if (type == QUEUED || type == REQUEUED) {
+                gCost = (int) readVarLong();
+                hCost = (int) readVarLong();
+            }
+            return true;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public int getCell() {
+            return cell;
+        }
+
+        /**
+         * Returns the gCost of a queue event.
+         *
+         * @return The gCost, or the one of the last queue event.
+         */
+        public int getGCost() {
+            return gCost;
+        }
+
+        /**
+         * Returns the hCost of a queue event.
+         *
+         * @return The hCost, or the one of the last queue event.
+         */
+        public int getHCost() {
+            return hCost;
+        }
+    }
+}
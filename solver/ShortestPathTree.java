@@ -0,0 +1,63 @@
+package solver;
+
+import java.util.Arrays;
+
+import grid.CsrGraph;
+import grid.GridModel;
+import open_set.OpenSet;
+import open_set.OpenSetType;
+
+/**
+ * Single source shortest paths: the distance from one cell to every cell of a
+ * grid, computed by Dijkstra on a compressed sparse row graph. Walls are never
+ * entered, and the cells that cannot be reached are left at
+ * SearchState.INFINITY. Nothing is shared between two calls, so several trees
+ * can be computed at the same time on different threads.
+ */
+public class ShortestPathTree {
+
+    private ShortestPathTree() {
+    }
+
+    /**
+     * It computes the distances from the source along the links of the graph.
+     * Run it on the reverse graph to get the distances from every cell to the
+     * source instead.
+     *
+     * @param gM     The grid, for its walls.
+     * @param graph  The graph of the grid, or its reverse.
+     * @param source The index of the source cell.
+     * @return The distance of each cell, indexed by cell.
+     */
+    public static int[] distances(GridModel gM, CsrGraph graph, int source) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int[] distances = new int[graph.getSize()];
+        Arrays.fill(distances, SearchState.INFINITY);
+        if (!gM.isWalkable(source)) {
+            return distances;
+        }
+        boolean[] settled = new boolean[graph.getSize()];
+        OpenSet open = OpenSetType.RADIX.create(graph.getSize());
+        distances[source] = 0;
+        open.push(source, 0, 0);
+        while (!open.isEmpty()) {
+            int cell = open.poll();
+            settled[cell] = true;
+            int distance = distances[cell];
+            for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                int target = targets[edge];
+                if (settled[target] || !gM.isWalkable(target)) {
+                    continue;
+                }
+                int newDistance = distance + weights[edge];
+                if (newDistance < distances[target]) {
+                    distances[target] = newDistance;
+                    open.push(target, newDistance, 0);
+                }
+            }
+        }
+        return distances;
+    }
+}
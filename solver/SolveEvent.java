@@ -0,0 +1,48 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of a whole Solver.solve call, from the reset of the previous
+ * search to the end of the retrace, with the grid and the query it solved. The
+ * start and goal are -1 when the grid has no start or end node.
+ */
+@Name("pathfinding.Solve")
+@Label("Solve")
+@Category({ "Pathfinding", "Solver" })
+@Description("A solve of a Swing solver, from the reset of the previous search to the retrace of the path")
+class SolveEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Columns")
+    int cols;
+
+    @Label("Start Cell")
+    int start;
+
+    @Label("Goal Cell")
+    int goal;
+
+    @Label("Found")
+    boolean found;
+
+    @Label("Cache Hit")
+    @Description("The path was found in the cache, no cell was expanded")
+    boolean cacheHit;
+
+    @Label("Cost")
+    int cost;
+
+    @Label("Expanded Cells")
+    int expanded;
+}
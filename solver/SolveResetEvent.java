@@ -0,0 +1,18 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of the clearing of the path and trace of the previous search.
+ */
+@Name("pathfinding.SolveReset")
+@Label("Solve Reset")
+@Category({ "Pathfinding", "Solver" })
+@Description("The clearing of the path and trace of the previous search")
+class SolveResetEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+}
@@ -0,0 +1,21 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of the retrace of a path found by a solve into its trace.
+ */
+@Name("pathfinding.SolveRetrace")
+@Label("Solve Retrace")
+@Category({ "Pathfinding", "Solver" })
+@Description("The recording of the cells of the path found in the trace")
+class SolveRetraceEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Path Length")
+    int pathLength;
+}
@@ -0,0 +1,28 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of the search loop of a solve, listener calls
+ * included. It is not emitted for a path found in the cache.
+ */
+@Name("pathfinding.SolveSearch")
+@Label("Solve Search")
+@Category({ "Pathfinding", "Solver" })
+@Description("The search loop of a solve")
+class SolveSearchEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Found")
+    boolean found;
+
+    @Label("Expanded Cells")
+    int expanded;
+
+    @Label("Generated Cells")
+    int generated;
+}
@@ -3,54 +3,121 @@ package solver;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.swing.SwingUtilities;
+
+import custom_exceptions.SearchInterrupted;
+import custom_listener.SearchListener;
 import grid.GridModel;
 import node.NodeModel;
-import util.NodeTag;
+import open_set.CountingOpenSet;
 
 /**
  * This class is the parent class for all the solvers. It contains the path, the
- * grid model, and the
- * pause time. It also contains the increment and decrement pause methods.
+ * grid model and the search engine.
+ * The search itself is done by the headless SearchEngine, at full speed; the
+ * solver listens to it to record the explored and queued nodes and the path
+ * in a SearchTrace, without touching the grid. Once the solve is over, the
+ * trace is handed to the TraceReplayer of the solver, if any, which draws it on
+ * the grid at its own pace.
+ * With stats enabled, each solve also records a SearchStats: its search runs
+ * on an engine counting the operations on its open sets, and the reset,
+ * search and retrace phases are timed. Otherwise no counting is done.
  */
-public abstract class Solver extends Thread {
-    protected static int pauseTime = 0;
-    protected static final int STEP_TIME = 10;
+public abstract class Solver extends Thread implements SearchListener {
     protected List<NodeModel> path;
     protected GridModel gM;
+    protected PathOptions options;
+    protected SearchEngine engine;
+    protected PathCache pathCache;
+    protected boolean statsEnabled;
+    protected volatile SearchTrace trace = new SearchTrace();
+    protected TraceReplayer traceReplayer;
+    // The cells expanded by the running search, for its progress events
+    private int expandedCount;
+    private volatile SearchStats lastStats;
+    private volatile SearchStats totalStats = SearchStats.EMPTY;
 
-    protected Solver(GridModel gM) {
+    protected Solver(GridModel gM, PathOptions options) {
         path = new ArrayList<>();
         this.gM = gM;
+        this.options = options;
     }
 
     /**
-     * This function is called when the user presses the "Pause" button. It
-     * increments the pause time
-     * by 100 milliseconds
+     * It sets the cache looked up before each search, and filled after it. A path
+     * found in the cache is drawn at once, without the explored and queued
+     * nodes.
+     * 
+     * @param pathCache The cache of the grid of the solver, or null for none.
      */
-    public static void incrementPause() {
-        pauseTime += STEP_TIME;
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
     }
 
     /**
-     * Decrements the pause time by 200 milliseconds.
+     * It makes the next solves record their stats, or stop recording them.
+     * 
+     * @param statsEnabled True to record the stats of each solve.
      */
-    public static void decrementPause() {
-        int newPauseTime = pauseTime - STEP_TIME;
-        if (newPauseTime < 0) {
-            pauseTime = 0;
-        } else {
-            pauseTime = newPauseTime;
-        }
+    public void setStatsEnabled(boolean statsEnabled) {
+        this.statsEnabled = statsEnabled;
+    }
+
+    public boolean isStatsEnabled() {
+        return statsEnabled;
     }
 
     /**
-     * A function that is called when the thread is started.
+     * Returns the stats of the last solve that recorded them.
+     * 
+     * @return A SearchStats object, or null if none was recorded.
+     */
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Returns the stats of every solve that recorded them, added together.
+     * 
+     * @return A SearchStats object, SearchStats.EMPTY if none was recorded.
+     */
+    public SearchStats getTotalStats() {
+        return totalStats;
+    }
+
+    /**
+     * It sets the replayer that draws the trace of the search on the grid once
+     * the thread has solved it.
+     * 
+     * @param traceReplayer The replayer of the grid of the solver, or null for
+     *                      none.
+     */
+    public void setTraceReplayer(TraceReplayer traceReplayer) {
+        this.traceReplayer = traceReplayer;
+    }
+
+    /**
+     * Returns the trace of the last solve.
+     * 
+     * @return A SearchTrace object, empty before the first solve.
+     */
+    public SearchTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * A function that is called when the thread is started. It solves, then
+     * hands the trace to the replayer on the event dispatch thread.
      */
     @Override
     public void run() {
         try {
             solve();
+            TraceReplayer replayer = traceReplayer;
+            if (replayer != null) {
+                SearchTrace solved = trace;
+                SwingUtilities.invokeLater(() -> replayer.play(solved));
+            }
         } catch (Exception e) {
             // TODO: handle exception
             e.printStackTrace();
@@ -58,21 +125,217 @@ public abstract class Solver extends Thread {
     }
 
     /**
-     * The function retraces the path from the end node to the start node by adding
-     * the nodes to the path arraylist in reverse order and
-     * set the overlay color of the current node to the color corresponding to PATH
+     * It starts a new trace, finds the path between the start and end nodes and
+     * retraces it into the trace. If the end node cannot be reached, the path is
+     * left empty. The path cache, if any, is tried first.
+     * The solve, its reset, cache lookup, search and retrace phases are JFR
+     * events, recorded when a flight recording enables them, for instance with
+     * jcmd JFR.start; the search also emits a progress event every
+     * SearchProgressEvent.PROGRESS_INTERVAL expanded cells. A solve without a
+     * start or end node is still recorded, as a solve that found no path, in the
+     * events and in the stats.
      */
-    public void retracePath() {
-        path = new ArrayList<>();
+    public void solve() {
+        boolean recording = statsEnabled;
+        SolveEvent solveEvent = new SolveEvent();
+        solveEvent.begin();
+        long resetStart = recording ? System.nanoTime() : 0;
+        SolveResetEvent resetEvent = new SolveResetEvent();
+        resetEvent.begin();
+        path.clear();
+        trace = new SearchTrace();
+        resetEvent.end();
+        if (resetEvent.shouldCommit()) {
+            resetEvent.solver = getClass().getSimpleName();
+            resetEvent.commit();
+        }
+
         NodeModel startNode = gM.getStartNode();
-        NodeModel curNode = gM.getEndNode();
-        while (curNode != startNode) {
-            path.add(0, curNode);
-            curNode.setOverLayColor(NodeTag.PATH);
-            curNode = curNode.getParent();
+        NodeModel endNode = gM.getEndNode();
+
+        if (startNode == null || endNode == null) {
+            PathResult result = PathResult.notFound(0, 0);
+            if (recording) {
+                recordStats(result, false, false, System.nanoTime() - resetStart, 0, 0);
+            }
+            commitSolveEvent(solveEvent, -1, -1, result, false);
+            return;
+        }
+        long searchStart = recording ? System.nanoTime() : 0;
+        int start = gM.getIndex(startNode);
+        int goal = gM.getIndex(endNode);
+        PathResult result = pathCache != null ? lookUpCache(start, goal) : null;
+        boolean searched = result == null;
+        if (searched) {
+            int version = gM.getVersion();
+            SolveSearchEvent searchEvent = new SolveSearchEvent();
+            searchEvent.begin();
+            expandedCount = 0;
+            result = search(start, goal);
+            searchEvent.end();
+            if (searchEvent.shouldCommit()) {
+                searchEvent.solver = getClass().getSimpleName();
+                searchEvent.found = result.isFound();
+                searchEvent.expanded = result.getExpanded();
+                searchEvent.generated = result.getGenerated();
+                searchEvent.commit();
+            }
+            if (pathCache != null) {
+                pathCache.put(start, goal, version, result);
+            }
+        }
+        long retraceStart = recording ? System.nanoTime() : 0;
+        if (result.isFound()) {
+            SolveRetraceEvent retraceEvent = new SolveRetraceEvent();
+            retraceEvent.begin();
+            retracePath(result);
+            retraceEvent.end();
+            if (retraceEvent.shouldCommit()) {
+                retraceEvent.solver = getClass().getSimpleName();
+                retraceEvent.pathLength = result.getLength();
+                retraceEvent.commit();
+            }
+        }
+        if (recording) {
+            recordStats(result, searched, !searched, searchStart - resetStart, retraceStart - searchStart,
+                    System.nanoTime() - retraceStart);
+        }
+        commitSolveEvent(solveEvent, start, goal, result, !searched);
+    }
+
+    /**
+     * It ends the event of the whole solve and commits it. A path found in the
+     * cache is recorded with no cell expanded, and a solve without a start or
+     * end node with -1 for the missing cells.
+     */
+    private void commitSolveEvent(SolveEvent solveEvent, int start, int goal, PathResult result,
+            boolean cacheHit) {
+        solveEvent.end();
+        if (solveEvent.shouldCommit()) {
+            solveEvent.solver = getClass().getSimpleName();
+            solveEvent.algorithm = options.getAlgorithm().toString();
+            solveEvent.rows = gM.getRows();
+            solveEvent.cols = gM.getCols();
+            solveEvent.start = start;
+            solveEvent.goal = goal;
+            solveEvent.found = result.isFound();
+            solveEvent.cacheHit = cacheHit;
+            solveEvent.cost = result.isFound() ? result.getCost() : 0;
+            solveEvent.expanded = cacheHit ? 0 : result.getExpanded();
+            solveEvent.commit();
+        }
+    }
+
+    /**
+     * It looks the path up in the cache, inside a JFR event.
+     */
+    private PathResult lookUpCache(int start, int goal) {
+        PathCacheLookupEvent cacheEvent = new PathCacheLookupEvent();
+        cacheEvent.begin();
+        PathResult result = pathCache.get(start, goal);
+        cacheEvent.end();
+        if (cacheEvent.shouldCommit()) {
+            cacheEvent.solver = getClass().getSimpleName();
+            cacheEvent.hit = result != null;
+            cacheEvent.commit();
+        }
+        return result;
+    }
+
+    /**
+     * It adds up the counts of the open sets of the engine, if the search ran on
+     * it, and records the stats of the solve. A solve without a start or end
+     * node neither searched nor hit the cache.
+     */
+    private void recordStats(PathResult result, boolean searched, boolean cacheHit, long resetNanos,
+            long searchNanos, long retraceNanos) {
+        long pushes = 0;
+        long pops = 0;
+        long decreaseKeys = 0;
+        long peakOpenSize = 0;
+        if (searched && engine != null) {
+            for (CountingOpenSet countingOpenSet : engine.getCountingOpenSets()) {
+                pushes += countingOpenSet.getPushes();
+                pops += countingOpenSet.getPops();
+                decreaseKeys += countingOpenSet.getDecreaseKeys();
+                peakOpenSize += countingOpenSet.getPeakSize();
+            }
         }
+        SearchStats stats = new SearchStats(result, cacheHit, pushes, pops, decreaseKeys, peakOpenSize,
+                resetNanos, searchNanos, retraceNanos);
+        lastStats = stats;
+        totalStats = totalStats.plus(stats);
     }
 
-    abstract void solve();
+    /**
+     * It runs the search between the two cells, with this solver as its
+     * listener. The search engine is created on the first call, and again when
+     * stats are enabled or disabled.
+     * 
+     * @param start The index of the start cell.
+     * @param goal  The index of the goal cell.
+     * @return The result of the search.
+     */
+    protected PathResult search(int start, int goal) {
+        if (engine == null || engine.isCounting() != statsEnabled) {
+            engine = new SearchEngine(gM.getSize(), options.getOpenSetType(), statsEnabled);
+        }
+        return engine.find(gM, start, goal, options, this);
+    }
+
+    /**
+     * The function adds the nodes of the path found by the search, from the one
+     * after the start node to the end node, to the path arraylist and records
+     * them in the trace as the path.
+     * 
+     * @param result The result of the search.
+     */
+    public void retracePath(PathResult result) {
+        path = new ArrayList<>(result.getLength());
+        for (int i = 1; i < result.getLength(); i++) {
+            path.add(gM.getNodeModel(result.getCell(i)));
+            trace.pathCell(result.getCell(i));
+        }
+    }
+
+    /**
+     * It records the expanded node in the trace. Every
+     * SearchProgressEvent.PROGRESS_INTERVAL expanded cells, it emits a progress
+     * event and gives up if the thread was interrupted.
+     * 
+     * @param cell The index of the expanded node.
+     */
+    @Override
+    public void nodeExpanded(int cell) {
+        if (++expandedCount % SearchProgressEvent.PROGRESS_INTERVAL == 0) {
+            SearchProgressEvent progressEvent = new SearchProgressEvent();
+            if (progressEvent.shouldCommit()) {
+                progressEvent.solver = getClass().getSimpleName();
+                progressEvent.expanded = expandedCount;
+                progressEvent.commit();
+            }
+            if (isInterrupted()) {
+                throw new SearchInterrupted("Solver interrupted while searching", null);
+            }
+        }
+        trace.nodeExpanded(cell);
+    }
+
+    /**
+     * It records the new costs of the queued node in the trace.
+     */
+    @Override
+    public void nodeQueued(int cell, int gCost, int hCost, boolean newlyQueued) {
+        trace.nodeQueued(cell, gCost, hCost, newlyQueued);
+    }
+
+    /**
+     * Returns the nodes of the last path found, without the start node.
+     * 
+     * @return The path.
+     */
+    public List<NodeModel> getPath() {
+        return path;
+    }
 
 }
@@ -1,85 +1,31 @@
 package solver;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.PriorityQueue;
-
 import grid.GridModel;
-import node.NodeModel;
-import util.NodeCostComparator;
-import util.NodeTag;
+import open_set.OpenSetType;
 
 /**
- * It's a class that extends the Solver class and implements the A* algorithm
+ * It's a class that extends the Solver class and implements the A* algorithm.
+ * The open set is keyed by fCost, ties being broken by hCost when the open set
+ * supports it, the hCost being the octile distance to the end node unless
+ * another heuristic is given.
  */
 public class SolverAStar extends Solver {
 
-    private PriorityQueue<NodeModel> open;
-    private HashSet<NodeModel> closed;
-
     public SolverAStar(GridModel gM) {
-        super(gM);
-        open = new PriorityQueue<>(new NodeCostComparator());
-        closed = new HashSet<>();
-        path = new ArrayList<>();
+        this(gM, OpenSetType.HEAP);
+    }
+
+    public SolverAStar(GridModel gM, OpenSetType openSetType) {
+        super(gM, new PathOptions(Algorithm.ASTAR, openSetType));
     }
 
     /**
-     * It takes a start node and an end node, and then it finds the shortest path
-     * between them
+     * @param gM        The grid to solve.
+     * @param heuristic The hCost, such as a LandmarkHeuristic computed on the
+     *                  grid, in place of the octile distance.
      */
-    @Override
-    public void solve() {
-        gM.resetGridData();
-        gM.resetTags();
-
-        open.clear();
-        closed.clear();
-        path.clear();
-
-        NodeModel startNode = gM.getStartNode();
-        NodeModel endNode = gM.getEndNode();
-
-        if (startNode == null || endNode == null) {
-            return;
-        }
-        open.add(startNode);
-
-        while (!open.isEmpty()) {
-            NodeModel curNode = open.poll();
-            closed.add(curNode);
-
-            if (curNode == endNode) {
-                retracePath();
-                return;
-            }
-            curNode.setOverLayColor(NodeTag.EXPLORED);
-
-            for (NodeModel linkedNode : curNode.getLinkedNodes()) {
-                if (!linkedNode.isWalkable() || closed.contains(linkedNode)) {
-                    continue;
-                }
-
-                int newMovementCostToNeighbour = curNode.getGCost() + gM.getDistance(curNode, linkedNode);
-                if (newMovementCostToNeighbour < linkedNode.getGCost() || !open.contains(linkedNode)) {
-                    linkedNode.setgCost(newMovementCostToNeighbour);
-                    linkedNode.sethCost(gM.getDistance(linkedNode, endNode));
-                    linkedNode.setParent(curNode);
-
-                    if (!open.contains(linkedNode)) {
-                        open.add(linkedNode);
-                        linkedNode.setOverLayColor(NodeTag.QUEUE);
-                    }
-                }
-            }
-            try {
-                Thread.sleep(Solver.pauseTime);
-            } catch (InterruptedException e) {
-                interrupt();
-                e.printStackTrace();
-                return;
-            }
-        }
+    public SolverAStar(GridModel gM, Heuristic heuristic) {
+        super(gM, new PathOptions(Algorithm.ASTAR, OpenSetType.HEAP, false, heuristic));
     }
 
 }
@@ -0,0 +1,29 @@
+package solver;
+
+import grid.GridModel;
+import open_set.OpenSetType;
+
+/**
+ * It's a class that extends the Solver class and implements a bidirectional
+ * search: A* or Dijkstra frontiers grow from both the start and the end node
+ * until the best path through a node reached by both is proven optimal.
+ */
+public class SolverBidirectional extends Solver {
+
+    public SolverBidirectional(GridModel gM) {
+        this(gM, true, false);
+    }
+
+    /**
+     * @param gM        The grid to solve.
+     * @param aStar     True for bidirectional A*, false for bidirectional
+     *                  Dijkstra.
+     * @param parallel  True to run the frontier of the end node on a second
+     *                  thread.
+     */
+    public SolverBidirectional(GridModel gM, boolean aStar, boolean parallel) {
+        super(gM, new PathOptions(aStar ? Algorithm.BIDIRECTIONAL_ASTAR : Algorithm.BIDIRECTIONAL_DIJKSTRA,
+                OpenSetType.HEAP, parallel));
+    }
+
+}
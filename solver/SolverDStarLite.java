@@ -0,0 +1,24 @@
+package solver;
+
+import grid.GridModel;
+
+/**
+ * It's a class that extends the Solver class and replans with D* Lite. The
+ * planner outlives the solver: give the same planner to each new solver of a
+ * grid, and only the cells affected by the walls placed or removed since the
+ * last solve are expanded again.
+ */
+public class SolverDStarLite extends Solver {
+    private final DStarLite planner;
+
+    public SolverDStarLite(GridModel gM, DStarLite planner) {
+        super(gM, new PathOptions());
+        this.planner = planner;
+    }
+
+    @Override
+    protected PathResult search(int start, int goal) {
+        return planner.find(start, goal, this);
+    }
+
+}
@@ -0,0 +1,21 @@
+package solver;
+
+import grid.GridModel;
+import open_set.OpenSetType;
+
+/**
+ * It's a class that extends the Solver class and implements Jump Point Search,
+ * an A* that only expands the jump points of a uniform 8-connected grid. On a
+ * grid with custom links it falls back to A*.
+ */
+public class SolverJPS extends Solver {
+
+    public SolverJPS(GridModel gM) {
+        this(gM, OpenSetType.HEAP);
+    }
+
+    public SolverJPS(GridModel gM, OpenSetType openSetType) {
+        super(gM, new PathOptions(Algorithm.JPS, openSetType));
+    }
+
+}
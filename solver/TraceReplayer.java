@@ -0,0 +1,218 @@
+package solver;
+
+import javax.swing.Timer;
+
+import grid.GridModel;
+import node.NodeModel;
+import util.NodeTag;
+
+/**
+ * It replays a SearchTrace on the nodes of a grid, which is how the Swing
+ * solvers show their search: the expanded and queued cells are tagged and
+ * their costs set as they were during the search, one expanded cell every
+ * pause time, and the path is drawn at the end. The search itself ran at full
+ * speed before the replay starts.
+ * A timer of the event dispatch thread applies, every frame, the events due
+ * since the replay started, so the speed does not depend on the frame rate and
+ * a pause time of 0 draws the whole search at once. The replay can be paused
+ * and moved to any event; moving back replays the trace from its start.
+ * Every method must be called on the event dispatch thread.
+ */
+public class TraceReplayer {
+    public static final int STEP_TIME = 10;
+    private static final int FRAME_MILLIS = 16;
+
+    private final GridModel gM;
+    private final Timer timer;
+    private SearchTrace trace;
+    private SearchTrace.Reader reader;
+    // True when the reader holds an event that was not applied yet
+    private boolean pending;
+    private int position;
+    private int expanded;
+    private int pauseTime;
+    // The time the replay would have started at to be where it is now
+    private long startMillis;
+
+    public TraceReplayer(GridModel gM) {
+        this.gM = gM;
+        timer = new Timer(FRAME_MILLIS, e -> tick());
+    }
+
+    /**
+     * It clears the previous search from the grid and starts replaying the
+     * trace from its first event.
+     *
+     * @param trace The trace to replay.
+     */
+    public void play(SearchTrace trace) {
+        this.trace = trace;
+        rewind();
+        resume();
+    }
+
+    /**
+     * It stops the replay where it is, the grid showing the events replayed so
+     * far.
+     */
+    public void pause() {
+        timer.stop();
+    }
+
+    /**
+     * It goes on with the replay from where it was paused.
+     */
+    public void resume() {
+        if (trace == null) {
+            return;
+        }
+        startMillis = System.currentTimeMillis() - (long) expanded * pauseTime;
+        timer.start();
+    }
+
+    public boolean isPlaying() {
+        return timer.isRunning();
+    }
+
+    /**
+     * It stops the replay and forgets the trace, leaving the grid as it is.
+     */
+    public void stop() {
+        timer.stop();
+        trace = null;
+        reader = null;
+    }
+
+    /**
+     * It moves the replay to the given event, the grid showing every event
+     * before it. The replay is paused.
+     *
+     * @param event The number of events to show, between 0 and the number of
+     *              events of the trace.
+     */
+    public void seek(int event) {
+        if (trace == null) {
+            return;
+        }
+        timer.stop();
+        if (event < position) {
+            rewind();
+        }
+        while (position < event && nextEvent()) {
+            apply();
+        }
+    }
+
+    /**
+     * It moves the replay by a number of events, forward or back. The replay is
+     * paused.
+     *
+     * @param events The number of events to move by, negative to move back.
+     */
+    public void step(int events) {
+        seek(Math.max(0, position + events));
+    }
+
+    /**
+     * Returns the number of events shown on the grid.
+     *
+     * @return The position of the replay.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    public int getPauseTime() {
+        return pauseTime;
+    }
+
+    /**
+     * It sets the time between two expanded cells, from the next frame on.
+     *
+     * @param pauseTime The pause time in milliseconds, 0 to show the search at
+     *                  once.
+     */
+    public void setPauseTime(int pauseTime) {
+        this.pauseTime = Math.max(0, pauseTime);
+        startMillis = System.currentTimeMillis() - (long) expanded * this.pauseTime;
+    }
+
+    /**
+     * It slows the replay down by STEP_TIME milliseconds per expanded cell.
+     */
+    public void incrementPause() {
+        setPauseTime(pauseTime + STEP_TIME);
+    }
+
+    /**
+     * It speeds the replay up by STEP_TIME milliseconds per expanded cell.
+     */
+    public void decrementPause() {
+        setPauseTime(pauseTime - STEP_TIME);
+    }
+
+    private void rewind() {
+        gM.resetSearchData();
+        reader = trace.reader();
+        pending = false;
+        position = 0;
+        expanded = 0;
+    }
+
+    /**
+     * It applies the events due at this time: the cells expanded since the
+     * replay started, one every pause time, and the events between them.
+     */
+    private void tick() {
+        long due = pauseTime == 0 ? Long.MAX_VALUE : (System.currentTimeMillis() - startMillis) / pauseTime;
+        while (nextEvent()) {
+            if (reader.getType() == SearchTrace.EXPANDED && expanded >= due) {
+                pending = true;
+                return;
+            }
+            apply();
+        }
+        timer.stop();
+    }
+
+    /**
+     * It moves the reader to the next event, unless the event it holds was not
+     * applied yet.
+     *
+     * @return False if there is no event left.
+     */
+    private boolean nextEvent() {
+        if (pending) {
+            pending = false;
+            return true;
+        }
+        return reader.next();
+    }
+
+    /**
+     * It applies the current event of the reader to the grid.
+     */
+    private void apply() {
+        NodeModel nodeModel = gM.getNodeModel(reader.getCell());
+        switch (reader.getType()) {
+            case SearchTrace.EXPANDED:
+                nodeModel.setOverLayColor(NodeTag.EXPLORED);
+                expanded++;
+                break;
+            case SearchTrace.QUEUED:
+                nodeModel.setgCost(reader.getGCost());
+                nodeModel.sethCost(reader.getHCost());
+                nodeModel.setOverLayColor(NodeTag.QUEUE);
+                break;
+            case SearchTrace.REQUEUED:
+                nodeModel.setgCost(reader.getGCost());
+                nodeModel.sethCost(reader.getHCost());
+                break;
+            case SearchTrace.PATH:
+            default:
+                nodeModel.setOverLayColor(NodeTag.PATH);
+                break;
+        }
+        position++;
+    }
+}